@@ -10,7 +10,9 @@ public class AppConfig {
 
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(ServiceTokenInterceptor serviceTokenInterceptor) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(serviceTokenInterceptor);
+        return restTemplate;
     }
 }
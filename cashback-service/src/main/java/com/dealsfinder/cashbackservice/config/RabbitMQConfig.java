@@ -37,10 +37,12 @@
 package com.dealsfinder.cashbackservice.config;
 
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -50,6 +52,11 @@ public class RabbitMQConfig {
     public static final String CASHBACK_QUEUE = "cashback-queue";
     public static final String NOTIFICATION_QUEUE = "notification-queue"; // ✅ new
 
+    // payment-service publishes one PaymentCompleted event per checkout; see ShardedConsumerConfig for how it reaches us
+    public static final String PAYMENT_EXCHANGE = "payment-exchange";
+    public static final String PAYMENT_COMPLETED_KEY = "payment.completed";
+    public static final String PARTITION_KEY_HEADER = "x-partition-key";
+
     @Bean
     public Queue cashbackQueue() {
         return new Queue(CASHBACK_QUEUE, true);
@@ -60,6 +67,11 @@ public class RabbitMQConfig {
         return new Queue(NOTIFICATION_QUEUE, true);
     }
 
+    @Bean
+    public TopicExchange paymentExchange() {
+        return new TopicExchange(PAYMENT_EXCHANGE, true, false);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -75,4 +87,25 @@ public class RabbitMQConfig {
         factory.setMessageConverter(messageConverter);
         return factory;
     }
+
+    // Hands listeners up to batch-size messages at once (or fewer after receive-timeout-ms of quiet)
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            @Value("${cashback.consumer.batch-size}") int batchSize,
+            @Value("${cashback.consumer.receive-timeout-ms}") long receiveTimeoutMs,
+            @Value("${cashback.consumer.concurrency}") int concurrency) {
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setConcurrentConsumers(concurrency);
+        return factory;
+    }
 }
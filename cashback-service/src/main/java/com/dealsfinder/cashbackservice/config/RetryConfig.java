@@ -0,0 +1,42 @@
+package com.dealsfinder.cashbackservice.config;
+
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Non-blocking retries: a failed credit waits in a TTL queue for its tier's delay, is dead-lettered into
+// RETRY_QUEUE and tried again. After the last tier it is parked until an admin replays it.
+@Configuration
+public class RetryConfig {
+
+    public static final String RETRY_QUEUE = "cashback-retry-queue";
+    public static final String PARKING_QUEUE = "cashback-parking-queue";
+    public static final String ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String ERROR_HEADER = "x-last-error";
+
+    // The delay is part of the name, so changing a tier declares a new queue instead of clashing with the old one
+    public static String tierQueue(long delayMs) {
+        return "cashback-retry-" + delayMs + "ms";
+    }
+
+    @Bean
+    public Declarables retryQueues(@Value("${cashback.retry.delays-ms}") long[] delaysMs) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (long delayMs : delaysMs) {
+            declarables.add(QueueBuilder.durable(tierQueue(delayMs))
+                    .ttl((int) delayMs)
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(RETRY_QUEUE)
+                    .build());
+        }
+        declarables.add(QueueBuilder.durable(RETRY_QUEUE).build());
+        declarables.add(QueueBuilder.durable(PARKING_QUEUE).build());
+        return new Declarables(declarables);
+    }
+}
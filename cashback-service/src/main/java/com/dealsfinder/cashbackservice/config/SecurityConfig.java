@@ -31,6 +31,7 @@ public class SecurityConfig {
                                 "/swagger-ui.html", "/swagger-ui/**",
                                 "/swagger-resources/**", "/webjars/**"
                         ).permitAll()
+                        .requestMatchers("/cashback/admin/**").hasRole("ADMIN")
                         .requestMatchers("/cashback/**").hasAnyRole("USER", "ADMIN")
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,52 @@
+package com.dealsfinder.cashbackservice.config;
+
+import com.dealsfinder.cashbackservice.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+// Calls made from consumer threads have no user's token to forward, so cashback-service signs its own:
+// subject "cashback-service", role SERVICE, which user-service accepts on its service-to-service lookups.
+// The token is reused until half its lifetime has passed.
+@Component
+public class ServiceTokenInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String SERVICE_NAME = "cashback-service";
+    public static final String SERVICE_ROLE = "SERVICE";
+
+    private final JwtUtil jwtUtil;
+    private final long refreshAfterMs;
+    private volatile String token;
+    private volatile long issuedAt;
+
+    public ServiceTokenInterceptor(JwtUtil jwtUtil, @Value("${jwt.expiration}") long expirationMs) {
+        this.jwtUtil = jwtUtil;
+        this.refreshAfterMs = expirationMs / 2;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+            request.getHeaders().setBearerAuth(currentToken());
+        }
+        return execution.execute(request, body);
+    }
+
+    private String currentToken() {
+        long now = System.currentTimeMillis();
+        String current = token;
+        if (current == null || now - issuedAt > refreshAfterMs) {
+            current = jwtUtil.generateToken(SERVICE_NAME, SERVICE_ROLE);
+            token = current;
+            issuedAt = now;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,102 @@
+package com.dealsfinder.cashbackservice.config;
+
+import com.dealsfinder.cashbackservice.dto.PaymentCompletedEvent;
+import com.dealsfinder.cashbackservice.listener.CashbackListener;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.CustomExchange;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.dealsfinder.cashbackservice.config.RabbitMQConfig.*;
+
+// Payment events are split over N shard queues by a consistent-hash exchange keyed on the user's email
+// (rabbitmq_consistent_hash_exchange plugin). Every shard queue is single-active-consumer, so one consumer
+// in the whole cluster processes a given user's events, in order, while different shards run in parallel.
+// Adding instances spreads the active shards; adding shards raises the parallelism ceiling.
+@Configuration
+public class ShardedConsumerConfig implements RabbitListenerConfigurer {
+
+    public static final String SHARD_EXCHANGE = "cashback-payment-shards";
+    public static final String SHARD_QUEUE_PREFIX = "cashback-payment-completed-shard-";
+
+    private final CashbackListener cashbackListener;
+    private final MessageConverter messageConverter;
+    private final SimpleRabbitListenerContainerFactory batchContainerFactory;
+    private final int shardCount;
+
+    public ShardedConsumerConfig(CashbackListener cashbackListener,
+                                 MessageConverter messageConverter,
+                                 @Qualifier("batchRabbitListenerContainerFactory") SimpleRabbitListenerContainerFactory batchContainerFactory,
+                                 @Value("${cashback.shards.count}") int shardCount) {
+        this.cashbackListener = cashbackListener;
+        this.messageConverter = messageConverter;
+        this.batchContainerFactory = batchContainerFactory;
+        this.shardCount = shardCount;
+    }
+
+    @Bean
+    public Declarables cashbackShards() {
+        CustomExchange shardExchange = new CustomExchange(SHARD_EXCHANGE, "x-consistent-hash", true, false,
+                Map.of("hash-header", PARTITION_KEY_HEADER));
+        TopicExchange paymentExchange = new TopicExchange(PAYMENT_EXCHANGE, true, false);
+
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(shardExchange);
+        declarables.add(BindingBuilder.bind(shardExchange).to(paymentExchange).with(PAYMENT_COMPLETED_KEY));
+        for (String queueName : shardQueueNames()) {
+            Queue queue = QueueBuilder.durable(queueName).singleActiveConsumer().build();
+            declarables.add(queue);
+            // For consistent-hash bindings the routing key is the shard's weight
+            declarables.add(new Binding(queueName, Binding.DestinationType.QUEUE, SHARD_EXCHANGE, "1", null));
+        }
+        return new Declarables(declarables);
+    }
+
+    // One container per shard with a single consumer, so this instance can be the active consumer for some
+    // shards and standby for others
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (String queueName : shardQueueNames()) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId(queueName);
+            endpoint.setQueueNames(queueName);
+            endpoint.setConcurrency("1");
+            endpoint.setBatchListener(true);
+            endpoint.setMessageListener((ChannelAwareBatchMessageListener) (messages, channel) ->
+                    cashbackListener.handlePaymentCompleted(messages.stream().map(this::toEvent).toList()));
+            registrar.registerEndpoint(endpoint, batchContainerFactory);
+        }
+    }
+
+    private PaymentCompletedEvent toEvent(Message message) {
+        // The __TypeId__ header names payment-service's class, so convert to ours explicitly
+        message.getMessageProperties().setInferredArgumentType(PaymentCompletedEvent.class);
+        PaymentCompletedEvent event = (PaymentCompletedEvent) messageConverter.fromMessage(message);
+        event.setMessageId(message.getMessageProperties().getMessageId());
+        return event;
+    }
+
+    private List<String> shardQueueNames() {
+        return IntStream.range(0, shardCount).mapToObj(i -> SHARD_QUEUE_PREFIX + i).toList();
+    }
+}
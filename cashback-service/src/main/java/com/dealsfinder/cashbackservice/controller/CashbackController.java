@@ -1,13 +1,19 @@
 package com.dealsfinder.cashbackservice.controller;
 
-import com.dealsfinder.cashbackservice.dto.CashbackDTO;
+import com.dealsfinder.cashbackservice.dto.CashbackCredit;
 import com.dealsfinder.cashbackservice.entity.Cashback;
 import com.dealsfinder.cashbackservice.entity.CashbackSummary;
 import com.dealsfinder.cashbackservice.repository.CashbackRepository;
 import com.dealsfinder.cashbackservice.repository.CashbackSummaryRepository;
+import com.dealsfinder.cashbackservice.service.CashbackLedgerService;
+import com.dealsfinder.cashbackservice.service.CashbackRollupService;
+import com.dealsfinder.cashbackservice.service.CashbackStatementService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,29 +24,35 @@ public class CashbackController {
 
     private final CashbackRepository cashbackRepository;
     private final CashbackSummaryRepository cashbackSummaryRepository;
+    private final CashbackLedgerService cashbackLedgerService;
+    private final CashbackRollupService cashbackRollupService;
+    private final CashbackStatementService cashbackStatementService;
 
     @PostMapping("/add")
     public Cashback addCashback(@RequestBody Cashback cashback) {
         cashback.setTimestamp(LocalDateTime.now());
         Cashback saved = cashbackRepository.save(cashback);
-        CashbackSummary summary = cashbackSummaryRepository
-                .findById(cashback.getUserEmail())
-                .orElse(new CashbackSummary(cashback.getUserEmail(), 0.0));
-
-        summary.setTotalCashback(summary.getTotalCashback() + cashback.getCashbackAmount());
-        cashbackSummaryRepository.save(summary);
-
+        cashbackLedgerService.applyTotals(
+                List.of(new CashbackCredit(cashback.getUserEmail(), cashback.getDealId(), cashback.getCashbackAmount())),
+                cashback.getTimestamp().toLocalDate());
         return saved;
     }
 
 
 
+    // Newest first; follow nextCursor via "after" for older cashbacks
     @GetMapping("/user/{email}")
-    public List<CashbackDTO> getCashbackForUser(@PathVariable String email) {
-        return cashbackRepository.findByUserEmail(email)
-                .stream()
-                .map(cb -> new CashbackDTO(cb.getDealId(), cb.getCashbackAmount(),cb.getTimestamp()))
-                .toList();
+    public ResponseEntity<?> getCashbackForUser(
+            @PathVariable String email,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(cashbackStatementService.getStatement(email, from, to, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/summary/{email}")
@@ -51,11 +63,28 @@ public class CashbackController {
                 .orElse(0.0);
     }
 
+    // Totals come from the daily/monthly rollups; [from, to] are inclusive days and default to all time
     @GetMapping("/user/{email}/total")
-    public double getTotalCashbackFromTransactions(@PathVariable String email) {
-        return cashbackRepository.findByUserEmail(email)
-                .stream()
-                .mapToDouble(Cashback::getCashbackAmount)
-                .sum();
+    public ResponseEntity<?> getTotalCashbackFromTransactions(
+            @PathVariable String email,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(cashbackRollupService.totalForUser(email, from, to).getTotal());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/deal/{dealId}/total")
+    public ResponseEntity<?> getTotalCashbackForDeal(
+            @PathVariable long dealId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(cashbackRollupService.totalForDeal(dealId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 }
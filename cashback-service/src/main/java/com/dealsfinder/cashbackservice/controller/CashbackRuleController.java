@@ -0,0 +1,79 @@
+package com.dealsfinder.cashbackservice.controller;
+
+import com.dealsfinder.cashbackservice.entity.CashbackRule;
+import com.dealsfinder.cashbackservice.repository.CashbackRuleRepository;
+import com.dealsfinder.cashbackservice.rules.CashbackRuleEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Rule edits are recompiled straight away on this instance; others pick them up on their next refresh
+@RestController
+@RequestMapping("/cashback/admin/rules")
+@RequiredArgsConstructor
+public class CashbackRuleController {
+
+    private final CashbackRuleRepository cashbackRuleRepository;
+    private final CashbackRuleEngine cashbackRuleEngine;
+
+    @GetMapping
+    public List<CashbackRule> getRules() {
+        return cashbackRuleRepository.findAll();
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createRule(@RequestBody CashbackRule rule) {
+        rule.setId(null);
+        return save(rule);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateRule(@PathVariable Long id, @RequestBody CashbackRule rule) {
+        if (!cashbackRuleRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        rule.setId(id);
+        return save(rule);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRule(@PathVariable Long id) {
+        if (!cashbackRuleRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        cashbackRuleRepository.deleteById(id);
+        cashbackRuleEngine.reload(true);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<?> save(CashbackRule rule) {
+        String error = validate(rule);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(error);
+        }
+        rule.setUpdatedAt(LocalDateTime.now());
+        CashbackRule saved = cashbackRuleRepository.save(rule);
+        cashbackRuleEngine.reload(true);
+        return ResponseEntity.ok(saved);
+    }
+
+    private String validate(CashbackRule rule) {
+        if (rule.getRate() == null || rule.getRate().signum() < 0 || rule.getRate().compareTo(BigDecimal.ONE) > 0) {
+            return "rate must be between 0 and 1.";
+        }
+        if (rule.getMinSpend() != null && rule.getMinSpend().signum() < 0) {
+            return "minSpend must not be negative.";
+        }
+        if (rule.getMaxCashback() != null && rule.getMaxCashback().signum() < 0) {
+            return "maxCashback must not be negative.";
+        }
+        if (rule.getStartsAt() != null && rule.getEndsAt() != null && !rule.getStartsAt().isBefore(rule.getEndsAt())) {
+            return "startsAt must be before endsAt.";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.dealsfinder.cashbackservice.controller;
+
+import com.dealsfinder.cashbackservice.service.ParkingLotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Credits that used up every retry tier wait in the parking queue until an admin replays them
+@RestController
+@RequestMapping("/cashback/admin/parking")
+@RequiredArgsConstructor
+public class ParkingLotController {
+
+    private final ParkingLotService parkingLotService;
+
+    @Value("${cashback.replay.batch-size}")
+    private int batchSize;
+
+    @Value("${cashback.replay.pause-ms}")
+    private long pauseMs;
+
+    @GetMapping
+    public Map<String, Long> getParked() {
+        return Map.of("parked", parkingLotService.parkedCount());
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<?> replay(@RequestParam(defaultValue = "1000") int max) throws InterruptedException {
+        if (max < 1) {
+            return ResponseEntity.badRequest().body("max must be positive.");
+        }
+        return ResponseEntity.ok(Map.of("replayed", parkingLotService.replay(max, batchSize, pauseMs)));
+    }
+}
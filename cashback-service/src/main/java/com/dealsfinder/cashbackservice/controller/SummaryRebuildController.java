@@ -0,0 +1,51 @@
+package com.dealsfinder.cashbackservice.controller;
+
+import com.dealsfinder.cashbackservice.entity.SummaryRebuildJob;
+import com.dealsfinder.cashbackservice.service.SummaryRebuildService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+// Starts the job and returns straight away; poll the Location for progress
+@RestController
+@RequestMapping("/cashback/admin/summary-rebuild")
+@RequiredArgsConstructor
+public class SummaryRebuildController {
+
+    private final SummaryRebuildService summaryRebuildService;
+
+    @PostMapping
+    public ResponseEntity<?> start() {
+        try {
+            return accepted(summaryRebuildService.start());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<?> resume(@PathVariable long jobId) {
+        try {
+            return accepted(summaryRebuildService.resume(jobId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getProgress(@PathVariable long jobId) {
+        return summaryRebuildService.getProgress(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> accepted(SummaryRebuildJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/cashback/admin/summary-rebuild/" + job.getId()))
+                .body(summaryRebuildService.getProgress(job.getId()).orElseThrow());
+    }
+}
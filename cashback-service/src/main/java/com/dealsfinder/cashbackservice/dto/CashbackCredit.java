@@ -0,0 +1,23 @@
+package com.dealsfinder.cashbackservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One cashback to credit, whichever message it came from
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CashbackCredit {
+    private String userEmail;
+    private long dealId;
+    private double cashbackAmount;
+    // Id of the message this credit came from, used to drop redeliveries; null when the producer set none
+    private String messageId;
+    // ISO code of the payment the cashback was earned on; null for credits that predate multi-currency payments
+    private String currency;
+
+    public CashbackCredit(String userEmail, long dealId, double cashbackAmount) {
+        this(userEmail, dealId, cashbackAmount, null, null);
+    }
+}
@@ -5,9 +5,11 @@ import lombok.Data;
 
 import java.time.LocalDateTime;
 
+// Statement row, projected straight from the query rather than hydrated as a Cashback entity
 @Data
 @AllArgsConstructor
 public class CashbackDTO {
+    private long id;
     private long dealId;
     private double cashbackAmount;
     private LocalDateTime timestamp;
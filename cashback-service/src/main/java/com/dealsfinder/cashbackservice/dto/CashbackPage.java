@@ -0,0 +1,13 @@
+package com.dealsfinder.cashbackservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CashbackPage {
+    private List<CashbackDTO> cashbacks;
+    private String nextCursor; // pass back as "after" to get the next page, null on the last page
+}
@@ -0,0 +1,19 @@
+package com.dealsfinder.cashbackservice.dto;
+
+import lombok.Data;
+
+@Data
+public class CashbackTotal {
+    private double total;
+    private long entryCount;
+
+    // sum() is null when no bucket matched
+    public CashbackTotal(Double total, Long entryCount) {
+        this.total = total != null ? total : 0.0;
+        this.entryCount = entryCount != null ? entryCount : 0L;
+    }
+
+    public CashbackTotal plus(CashbackTotal other) {
+        return new CashbackTotal(total + other.total, entryCount + other.entryCount);
+    }
+}
@@ -15,15 +15,27 @@
 //}
 package com.dealsfinder.cashbackservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
+// Either full text (subject, message) or a templateId plus params that notification-service renders
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class NotificationMessage {
     private String recipient;  // Email address
     private String subject;    // Email subject
     private String message;    // Email body
+    private String type;       // Lets notification-service digest it with other non-urgent mail
+    private String templateId;
+    private Map<String, String> params;
+
+    public static NotificationMessage fromTemplate(String recipient, String templateId, Map<String, String> params) {
+        return new NotificationMessage(recipient, null, null, null, templateId, params);
+    }
 }
@@ -0,0 +1,29 @@
+package com.dealsfinder.cashbackservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Published by payment-service to payment-exchange (routing key payment.completed)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentCompletedEvent {
+    private String transactionId;
+    private String userEmail;
+    private long dealId;
+    private String dealCategory;
+    private long amountMinor;
+    private String currency;
+    private BigDecimal amount;
+    private String paymentMethod;
+    private LocalDateTime completedAt;
+
+    // AMQP message-id stamped by payment-service's outbox relay; set from the message properties, not the body
+    @JsonIgnore
+    private String messageId;
+}
@@ -0,0 +1,22 @@
+package com.dealsfinder.cashbackservice.dto;
+
+import com.dealsfinder.cashbackservice.entity.SummaryRebuildJob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class SummaryRebuildProgress {
+    private long jobId;
+    private SummaryRebuildJob.Status status;
+    private boolean active;         // false for a RUNNING job whose instance died; resume it
+    private int partitions;
+    private int partitionsDone;
+    private long usersScanned;
+    private long usersCorrected;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
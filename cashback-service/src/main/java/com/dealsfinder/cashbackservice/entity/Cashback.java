@@ -1,11 +1,14 @@
 package com.dealsfinder.cashbackservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_cashback_user_timestamp", columnList = "userEmail, timestamp, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_cashback_source_message", columnNames = "sourceMessageId"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,4 +23,8 @@ public class Cashback {
     private long dealId;
     private double cashbackAmount;
     private LocalDateTime timestamp;
+
+    // Message the credit was consumed from; unique so a redelivered message can never be credited twice
+    @JsonIgnore
+    private String sourceMessageId;
 }
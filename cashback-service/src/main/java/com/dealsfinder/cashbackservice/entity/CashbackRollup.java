@@ -0,0 +1,29 @@
+package com.dealsfinder.cashbackservice.entity;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.*;
+
+// Pre-aggregated cashback per user or deal per day and per month, maintained by CashbackLedgerService
+@Entity
+// Hibernate orders the primary key columns alphabetically, so range reads need their own index
+@Table(name = "cashback_rollup", indexes = @Index(name = "idx_rollup_lookup",
+        columnList = "scope, scope_key, granularity, bucket_start", unique = true))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CashbackRollup {
+
+    public enum Scope { USER, DEAL }
+
+    public enum Granularity { DAY, MONTH }
+
+    @EmbeddedId
+    private CashbackRollupId id;
+
+    private double total;
+    private long entryCount;
+}
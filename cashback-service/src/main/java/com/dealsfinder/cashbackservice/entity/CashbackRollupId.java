@@ -0,0 +1,31 @@
+package com.dealsfinder.cashbackservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashbackRollupId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private CashbackRollup.Scope scope;
+
+    // User email, or the deal id as a string
+    private String scopeKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private CashbackRollup.Granularity granularity;
+
+    // The day itself, or the first day of the month
+    private LocalDate bucketStart;
+}
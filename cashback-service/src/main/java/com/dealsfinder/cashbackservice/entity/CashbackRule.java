@@ -0,0 +1,42 @@
+package com.dealsfinder.cashbackservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Admin-managed cashback rule. Null match fields mean "any"; of the rules matching a payment the one
+// with the highest priority wins. Amounts are in cashback.currency.
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashbackRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String name;
+
+    private String category;
+    private Long dealId;
+    private String userTier;
+
+    private BigDecimal minSpend;
+
+    @Column(precision = 7, scale = 6)
+    private BigDecimal rate;        // e.g. 0.05 for 5%
+    private BigDecimal maxCashback;
+
+    // Campaign window, either end open when null
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+
+    private int priority;
+    private boolean enabled;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.dealsfinder.cashbackservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// One row per finished partition of a SummaryRebuildJob; a resumed job skips these
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_rebuild_checkpoint", columnNames = {"jobId", "partitionNo"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SummaryRebuildCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private long jobId;
+    private int partitionNo;
+    private long usersScanned;
+    private long usersCorrected;
+    private LocalDateTime completedAt;
+}
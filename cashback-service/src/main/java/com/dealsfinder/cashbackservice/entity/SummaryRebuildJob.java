@@ -0,0 +1,44 @@
+package com.dealsfinder.cashbackservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SummaryRebuildJob {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private int partitionCount;
+
+    // Lowest user_email of partitions 1..n-1, fixed at start so a resumed job sees its checkpoints' ranges
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "summary_rebuild_boundary", joinColumns = @JoinColumn(name = "job_id"))
+    @OrderColumn(name = "position")
+    @Column(name = "lower_bound")
+    @Builder.Default
+    private List<String> boundaries = new ArrayList<>();
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    // The instance running the job and its last sign of life. A RUNNING job with no heartbeat yet, or a stale one,
+    // is not running anywhere and can be claimed.
+    private String owner;
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
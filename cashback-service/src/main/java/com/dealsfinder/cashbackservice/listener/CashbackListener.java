@@ -55,75 +55,191 @@ package com.dealsfinder.cashbackservice.listener;
 //
 //}
 
+import com.dealsfinder.cashbackservice.dto.CashbackCredit;
 import com.dealsfinder.cashbackservice.dto.CashbackMessage;
 import com.dealsfinder.cashbackservice.dto.NotificationMessage;
-import com.dealsfinder.cashbackservice.entity.Cashback;
-import com.dealsfinder.cashbackservice.entity.CashbackSummary;
-import com.dealsfinder.cashbackservice.repository.CashbackRepository;
-import com.dealsfinder.cashbackservice.repository.CashbackSummaryRepository;
+import com.dealsfinder.cashbackservice.dto.PaymentCompletedEvent;
+import com.dealsfinder.cashbackservice.rules.CashbackDecisionTable;
+import com.dealsfinder.cashbackservice.rules.CashbackRuleEngine;
+import com.dealsfinder.cashbackservice.service.CashbackLedgerService;
+import com.dealsfinder.cashbackservice.service.MessageDeduplicator;
+import com.dealsfinder.cashbackservice.service.RetryPublisher;
+import com.dealsfinder.cashbackservice.service.UserClientService;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 import static com.dealsfinder.cashbackservice.config.RabbitMQConfig.NOTIFICATION_QUEUE;
+import static com.dealsfinder.cashbackservice.config.RetryConfig.ATTEMPT_HEADER;
+import static com.dealsfinder.cashbackservice.config.RetryConfig.RETRY_QUEUE;
 
 @Component
 public class CashbackListener {
 
     private static final Logger logger = LoggerFactory.getLogger(CashbackListener.class);
-
-    private final CashbackRepository cashbackRepository;
-    private final CashbackSummaryRepository cashbackSummaryRepository;
+    private static final String CASHBACK_TEMPLATE = "cashback-received";
+    // Legacy cashback messages and manual credits carry no currency; they were always rupees
+    private static final String DEFAULT_CURRENCY = "INR";
+
+    private final CashbackLedgerService cashbackLedgerService;
+    private final CashbackRuleEngine cashbackRuleEngine;
+    private final UserClientService userClientService;
+    private final RetryPublisher retryPublisher;
+    private final MessageDeduplicator messageDeduplicator;
     private final RabbitTemplate rabbitTemplate;
 
-    public CashbackListener(CashbackRepository cashbackRepository,
-                            CashbackSummaryRepository cashbackSummaryRepository,
+    public CashbackListener(CashbackLedgerService cashbackLedgerService,
+                            CashbackRuleEngine cashbackRuleEngine,
+                            UserClientService userClientService,
+                            RetryPublisher retryPublisher,
+                            MessageDeduplicator messageDeduplicator,
                             RabbitTemplate rabbitTemplate) {
-        this.cashbackRepository = cashbackRepository;
-        this.cashbackSummaryRepository = cashbackSummaryRepository;
+        this.cashbackLedgerService = cashbackLedgerService;
+        this.cashbackRuleEngine = cashbackRuleEngine;
+        this.userClientService = userClientService;
+        this.retryPublisher = retryPublisher;
+        this.messageDeduplicator = messageDeduplicator;
         this.rabbitTemplate = rabbitTemplate;
     }
 
-    @RabbitListener(queues = "cashback-queue")
-    public void handleCashbackMessage(CashbackMessage message) {
-        try {
-            logger.info("💸 Received cashback message: {}", message);
-
-            // Save cashback
-            Cashback cashback = new Cashback();
-            cashback.setUserEmail(message.getUserEmail());
-            cashback.setDealId(message.getDealId());
-            cashback.setCashbackAmount(message.getCashbackAmount());
-            cashback.setTimestamp(LocalDateTime.now());
-            cashbackRepository.save(cashback);
+    // Called by the per-shard containers in ShardedConsumerConfig
+    public void handlePaymentCompleted(List<PaymentCompletedEvent> events) {
+        logger.info("💸 Received {} payment completed event(s)", events.size());
+        // One table for the whole batch, even if the rules are swapped meanwhile
+        CashbackDecisionTable rules = cashbackRuleEngine.current();
+        Map<String, String> tiers = rules.usesUserTier() ? lookUpTiers(events) : Map.of();
+        process(events.stream()
+                .map(event -> new CashbackCredit(event.getUserEmail(), event.getDealId(), cashbackFor(event, rules, tiers),
+                        event.getMessageId(), event.getCurrency()))
+                .toList());
+    }
 
-            // Update summary
-            CashbackSummary summary = cashbackSummaryRepository
-                    .findById(message.getUserEmail())
-                    .orElse(new CashbackSummary(message.getUserEmail(), 0.0));
-            summary.setTotalCashback(summary.getTotalCashback() + message.getCashbackAmount());
-            cashbackSummaryRepository.save(summary);
+    private double cashbackFor(PaymentCompletedEvent event, CashbackDecisionTable rules, Map<String, String> tiers) {
+        long cashbackMinor = rules.cashbackMinor(event.getDealId(), event.getDealCategory(), tiers.get(event.getUserEmail()),
+                event.getAmountMinor(), event.getCurrency(),
+                event.getCompletedAt() != null ? event.getCompletedAt() : LocalDateTime.now());
+        return BigDecimal.valueOf(cashbackMinor, Currency.getInstance(event.getCurrency()).getDefaultFractionDigits())
+                .doubleValue();
+    }
 
-            logger.info("✅ Cashback processed and saved for: {}", message.getUserEmail());
+    // The user's role stands in for the tier; only fetched while some rule is tier-specific. The whole batch
+    // resolves through one cached, coalesced lookup; if user-service is down the batch gets the untiered rules.
+    private Map<String, String> lookUpTiers(List<PaymentCompletedEvent> events) {
+        Set<String> emails = events.stream().map(PaymentCompletedEvent::getUserEmail).collect(Collectors.toSet());
+        try {
+            Map<String, String> tiers = new HashMap<>();
+            userClientService.getUsersByEmail(emails).join().forEach((email, user) -> tiers.put(email, user.getRole()));
+            return tiers;
+        } catch (CompletionException e) {
+            logger.warn("⚠️ Could not look up user tiers for {} user(s), applying untiered rules", emails.size(), e.getCause());
+            return Map.of();
+        }
+    }
 
-            // Send email notification to user via RabbitMQ
-            NotificationMessage notification = new NotificationMessage(
-                    message.getUserEmail(),
-                    "🎉 Cashback Received!",
-                    "Hi there,\n\nYou just received a cashback of ₹" + message.getCashbackAmount()
-);
+    // Drains messages payment-service queued before it switched to PaymentCompleted events
+    @RabbitListener(queues = "cashback-queue", containerFactory = "batchRabbitListenerContainerFactory")
+    public void handleCashbackMessages(List<CashbackMessage> messages) {
+        logger.info("💸 Received {} cashback message(s)", messages.size());
+        process(messages.stream()
+                .map(message -> new CashbackCredit(message.getUserEmail(), message.getDealId(), message.getCashbackAmount()))
+                .toList());
+    }
 
+    // Credits whose previous attempt failed, back from a retry tier's TTL queue (see RetryConfig)
+    @RabbitListener(queues = RETRY_QUEUE)
+    public void handleRetry(CashbackCredit credit, @Header(name = ATTEMPT_HEADER, defaultValue = "0") int attempt) {
+        logger.info("🔁 Retrying cashback credit (attempt {}): {}", attempt, credit);
+        if (!dropDuplicates(List.of(credit)).isEmpty() && creditOne(credit, attempt)) {
+            notifyUser(credit);
+        }
+    }
 
-            rabbitTemplate.convertAndSend(NOTIFICATION_QUEUE, notification);
+    private void process(List<CashbackCredit> credits) {
+        credits = dropDuplicates(credits);
+        if (credits.isEmpty()) {
+            return;
+        }
 
-            logger.info("📧 Notification message published for: {}", message.getUserEmail());
+        List<CashbackCredit> credited;
+        try {
+            credited = cashbackLedgerService.credit(credits);
+            markSeen(credits);
+        } catch (Exception e) {
+            // One bad credit must not sink the batch: retry them one by one and hand only the failures to
+            // the delayed retry tiers, so the consumer keeps moving while the cause clears
+            logger.error("❌ Failed to apply cashback batch of {}, retrying individually", credits.size(), e);
+            credited = credits.stream().filter(credit -> creditOne(credit, 0)).toList();
+        }
+        logger.info("✅ Cashback processed and saved for {} credit(s)", credited.size());
+        credited.forEach(this::notifyUser);
+    }
 
+    // Returns false when the credit failed (and was scheduled for retry) or turned out to be a duplicate
+    private boolean creditOne(CashbackCredit credit, int attempt) {
+        try {
+            boolean credited = !cashbackLedgerService.credit(List.of(credit)).isEmpty();
+            markSeen(List.of(credit));
+            return credited;
+        } catch (DuplicateKeyException e) {
+            // Another consumer recorded the same message between our check and insert
+            logger.info("♊ Duplicate cashback message {} discarded", credit.getMessageId());
+            markSeen(List.of(credit));
+            return false;
         } catch (Exception e) {
-            logger.error("❌ Failed to process cashback message: {}", message, e);
+            logger.error("❌ Failed to process cashback credit: {}", credit, e);
+            retryPublisher.retry(credit, attempt, e);
+            return false;
+        }
+    }
+
+    // Redeliveries of recently credited messages, and repeats within the batch, never reach the DB
+    private List<CashbackCredit> dropDuplicates(List<CashbackCredit> credits) {
+        Set<String> batchIds = new HashSet<>();
+        List<CashbackCredit> fresh = new ArrayList<>(credits.size());
+        for (CashbackCredit credit : credits) {
+            String messageId = credit.getMessageId();
+            if (messageId != null && (messageDeduplicator.seen(messageId) || !batchIds.add(messageId))) {
+                logger.info("♊ Duplicate cashback message {} discarded", messageId);
+                continue;
+            }
+            fresh.add(credit);
         }
+        return fresh;
+    }
+
+    private void markSeen(List<CashbackCredit> credits) {
+        messageDeduplicator.markSeen(credits.stream().map(CashbackCredit::getMessageId).filter(Objects::nonNull).toList());
+    }
+
+    // Send email notification to user via RabbitMQ
+    private void notifyUser(CashbackCredit credit) {
+        // The copy lives in notification-service's cashback-received template. The amount goes out in plain
+        // notation at the currency's scale; String.valueOf(double) would print large ones as 1.0E7
+        String currency = credit.getCurrency() != null ? credit.getCurrency() : DEFAULT_CURRENCY;
+        String amount = BigDecimal.valueOf(credit.getCashbackAmount())
+                .setScale(Currency.getInstance(currency).getDefaultFractionDigits(), RoundingMode.HALF_UP)
+                .toPlainString();
+        NotificationMessage notification = NotificationMessage.fromTemplate(credit.getUserEmail(), CASHBACK_TEMPLATE,
+                Map.of("amount", amount, "currency", currency));
+        rabbitTemplate.convertAndSend(NOTIFICATION_QUEUE, notification);
+        logger.info("📧 Notification message published for: {}", credit.getUserEmail());
     }
 }
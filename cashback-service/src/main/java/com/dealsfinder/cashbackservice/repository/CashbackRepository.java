@@ -1,10 +1,29 @@
 package com.dealsfinder.cashbackservice.repository;
 
+import com.dealsfinder.cashbackservice.dto.CashbackDTO;
 import com.dealsfinder.cashbackservice.entity.Cashback;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CashbackRepository extends JpaRepository<Cashback, Long> {
-    List<Cashback> findByUserEmail(String userEmail);
+
+    // Newest first, keyset-paged on (timestamp, id) so deep pages cost the same as the first one.
+    // Served by idx_cashback_user_timestamp; null filters are ignored.
+    @Query("select new com.dealsfinder.cashbackservice.dto.CashbackDTO(c.id, c.dealId, c.cashbackAmount, c.timestamp) " +
+            "from Cashback c where c.userEmail = :userEmail " +
+            "and (:from is null or c.timestamp >= :from) and (:to is null or c.timestamp < :to) " +
+            "and (:afterTimestamp is null or c.timestamp < :afterTimestamp " +
+            "or (c.timestamp = :afterTimestamp and c.id < :afterId)) " +
+            "order by c.timestamp desc, c.id desc")
+    List<CashbackDTO> findStatement(@Param("userEmail") String userEmail,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
 }
@@ -0,0 +1,22 @@
+package com.dealsfinder.cashbackservice.repository;
+
+import com.dealsfinder.cashbackservice.dto.CashbackTotal;
+import com.dealsfinder.cashbackservice.entity.CashbackRollup;
+import com.dealsfinder.cashbackservice.entity.CashbackRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface CashbackRollupRepository extends JpaRepository<CashbackRollup, CashbackRollupId> {
+
+    @Query("select new com.dealsfinder.cashbackservice.dto.CashbackTotal(sum(r.total), sum(r.entryCount)) " +
+            "from CashbackRollup r where r.id.scope = :scope and r.id.scopeKey = :scopeKey " +
+            "and r.id.granularity = :granularity and r.id.bucketStart between :from and :to")
+    CashbackTotal sumBuckets(@Param("scope") CashbackRollup.Scope scope,
+                             @Param("scopeKey") String scopeKey,
+                             @Param("granularity") CashbackRollup.Granularity granularity,
+                             @Param("from") LocalDate from,
+                             @Param("to") LocalDate to);
+}
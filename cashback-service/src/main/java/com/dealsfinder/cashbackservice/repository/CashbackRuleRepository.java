@@ -0,0 +1,16 @@
+package com.dealsfinder.cashbackservice.repository;
+
+import com.dealsfinder.cashbackservice.entity.CashbackRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface CashbackRuleRepository extends JpaRepository<CashbackRule, Long> {
+
+    List<CashbackRule> findByEnabledTrue();
+
+    // Changes whenever a rule is added, edited or deleted; cheap enough to poll
+    @Query("select concat(count(r), ':', coalesce(cast(max(r.updatedAt) as String), '')) from CashbackRule r")
+    String version();
+}
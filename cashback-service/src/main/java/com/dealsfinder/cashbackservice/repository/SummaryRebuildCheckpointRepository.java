@@ -0,0 +1,11 @@
+package com.dealsfinder.cashbackservice.repository;
+
+import com.dealsfinder.cashbackservice.entity.SummaryRebuildCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface SummaryRebuildCheckpointRepository extends JpaRepository<SummaryRebuildCheckpoint, Long> {
+
+    List<SummaryRebuildCheckpoint> findByJobId(long jobId);
+}
@@ -0,0 +1,7 @@
+package com.dealsfinder.cashbackservice.repository;
+
+import com.dealsfinder.cashbackservice.entity.SummaryRebuildJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SummaryRebuildJobRepository extends JpaRepository<SummaryRebuildJob, Long> {
+}
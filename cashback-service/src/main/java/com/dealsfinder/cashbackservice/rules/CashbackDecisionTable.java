@@ -0,0 +1,148 @@
+package com.dealsfinder.cashbackservice.rules;
+
+import com.dealsfinder.cashbackservice.entity.CashbackRule;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Immutable snapshot of the enabled rules, indexed by deal id and category. Lookups are a binary search
+// over a sorted long[] plus one HashMap get, and every bucket is pre-sorted by priority, so evaluating a
+// payment touches only its own candidates and allocates nothing.
+public final class CashbackDecisionTable {
+
+    private static final Comparator<CompiledRule> BY_PRIORITY =
+            Comparator.comparingInt((CompiledRule rule) -> rule.priority).reversed()
+                    .thenComparingLong(rule -> rule.ruleId);
+    private static final CompiledRule[] NO_RULES = new CompiledRule[0];
+
+    private final String currency;
+    private final long defaultRatePpm;
+    private final long[] dealIds;
+    private final CompiledRule[][] dealRules;
+    private final Map<String, CompiledRule[]> categoryRules;
+    private final CompiledRule[] globalRules;
+    private final boolean usesUserTier;
+    private final int size;
+
+    private CashbackDecisionTable(String currency, long defaultRatePpm, long[] dealIds, CompiledRule[][] dealRules,
+                                  Map<String, CompiledRule[]> categoryRules, CompiledRule[] globalRules,
+                                  boolean usesUserTier, int size) {
+        this.currency = currency;
+        this.defaultRatePpm = defaultRatePpm;
+        this.dealIds = dealIds;
+        this.dealRules = dealRules;
+        this.categoryRules = categoryRules;
+        this.globalRules = globalRules;
+        this.usesUserTier = usesUserTier;
+        this.size = size;
+    }
+
+    // minSpend and maxCashback are read as amounts in the given currency
+    public static CashbackDecisionTable compile(List<CashbackRule> rules, String currency, BigDecimal defaultRate) {
+        int fractionDigits = Currency.getInstance(currency).getDefaultFractionDigits();
+
+        TreeMap<Long, List<CompiledRule>> byDeal = new TreeMap<>();
+        Map<String, List<CompiledRule>> byCategory = new HashMap<>();
+        List<CompiledRule> global = new ArrayList<>();
+        boolean usesUserTier = false;
+
+        for (CashbackRule rule : rules) {
+            if (rule.getRate() == null || rule.getRate().signum() < 0) {
+                throw new IllegalArgumentException("Cashback rule " + rule.getId() + " has no valid rate");
+            }
+            CompiledRule compiled = new CompiledRule(
+                    rule.getId() != null ? rule.getId() : 0L,
+                    rule.getDealId() != null ? rule.getCategory() : null,
+                    rule.getUserTier(),
+                    rule.getMinSpend() != null ? toMinor(rule.getMinSpend(), fractionDigits) : Long.MIN_VALUE,
+                    toPpm(rule.getRate()),
+                    rule.getMaxCashback() != null ? toMinor(rule.getMaxCashback(), fractionDigits) : Long.MAX_VALUE,
+                    rule.getStartsAt(),
+                    rule.getEndsAt(),
+                    rule.getPriority());
+            usesUserTier |= rule.getUserTier() != null;
+
+            if (rule.getDealId() != null) {
+                byDeal.computeIfAbsent(rule.getDealId(), id -> new ArrayList<>()).add(compiled);
+            } else if (rule.getCategory() != null) {
+                byCategory.computeIfAbsent(rule.getCategory(), category -> new ArrayList<>()).add(compiled);
+            } else {
+                global.add(compiled);
+            }
+        }
+
+        long[] dealIds = new long[byDeal.size()];
+        CompiledRule[][] dealRules = new CompiledRule[byDeal.size()][];
+        int i = 0;
+        for (Map.Entry<Long, List<CompiledRule>> entry : byDeal.entrySet()) {
+            dealIds[i] = entry.getKey();
+            dealRules[i++] = sorted(entry.getValue());
+        }
+        Map<String, CompiledRule[]> categoryRules = new HashMap<>();
+        byCategory.forEach((category, bucket) -> categoryRules.put(category, sorted(bucket)));
+
+        return new CashbackDecisionTable(currency, toPpm(defaultRate), dealIds, dealRules,
+                Map.copyOf(categoryRules), sorted(global), usesUserTier, rules.size());
+    }
+
+    // Cashback in minor units of the payment's currency. The highest-priority matching rule wins, a deal
+    // rule beating a category rule beating a global one on equal priority; with no match the default rate
+    // applies. Payments in another currency than the table's only get the default rate.
+    public long cashbackMinor(long dealId, String category, String userTier, long amountMinor, String paymentCurrency,
+                              LocalDateTime at) {
+        if (!currency.equals(paymentCurrency)) {
+            return CompiledRule.applyRate(amountMinor, defaultRatePpm);
+        }
+
+        int dealIndex = Arrays.binarySearch(dealIds, dealId);
+        CompiledRule best = firstMatch(dealIndex >= 0 ? dealRules[dealIndex] : NO_RULES, category, userTier, amountMinor, at);
+        CompiledRule[] byCategory = category != null ? categoryRules.get(category) : null;
+        best = better(best, firstMatch(byCategory != null ? byCategory : NO_RULES, category, userTier, amountMinor, at));
+        best = better(best, firstMatch(globalRules, category, userTier, amountMinor, at));
+
+        return best != null ? best.cashbackMinor(amountMinor) : CompiledRule.applyRate(amountMinor, defaultRatePpm);
+    }
+
+    // When false the caller can skip looking up the user's tier
+    public boolean usesUserTier() {
+        return usesUserTier;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static CompiledRule firstMatch(CompiledRule[] bucket, String category, String userTier, long amountMinor,
+                                           LocalDateTime at) {
+        for (CompiledRule rule : bucket) {
+            if (rule.matches(category, userTier, amountMinor, at)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    // Candidates arrive most specific first, so only a strictly higher priority replaces the current best
+    private static CompiledRule better(CompiledRule current, CompiledRule candidate) {
+        if (current == null) {
+            return candidate;
+        }
+        return candidate != null && candidate.priority > current.priority ? candidate : current;
+    }
+
+    private static CompiledRule[] sorted(List<CompiledRule> rules) {
+        CompiledRule[] array = rules.toArray(NO_RULES);
+        Arrays.sort(array, BY_PRIORITY);
+        return array;
+    }
+
+    private static long toPpm(BigDecimal rate) {
+        return rate.movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static long toMinor(BigDecimal amount, int fractionDigits) {
+        return amount.movePointRight(fractionDigits).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -0,0 +1,68 @@
+package com.dealsfinder.cashbackservice.rules;
+
+import com.dealsfinder.cashbackservice.entity.CashbackRule;
+import com.dealsfinder.cashbackservice.repository.CashbackRuleRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+// Holds the current CashbackDecisionTable. Rule edits recompile it off the hot path and publish the new
+// table with a single volatile write, so consumers never see a half-built table or take a lock.
+@Service
+public class CashbackRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(CashbackRuleEngine.class);
+
+    private final CashbackRuleRepository cashbackRuleRepository;
+    private final String currency;
+    private final BigDecimal defaultRate;
+
+    private volatile CashbackDecisionTable table;
+    private volatile String loadedVersion;
+
+    public CashbackRuleEngine(CashbackRuleRepository cashbackRuleRepository,
+                              @Value("${cashback.currency}") String currency,
+                              @Value("${cashback.rate}") BigDecimal defaultRate) {
+        this.cashbackRuleRepository = cashbackRuleRepository;
+        this.currency = currency;
+        this.defaultRate = defaultRate;
+        this.table = CashbackDecisionTable.compile(List.of(), currency, defaultRate);
+    }
+
+    public CashbackDecisionTable current() {
+        return table;
+    }
+
+    @PostConstruct
+    public void load() {
+        reload(true);
+    }
+
+    // Picks up edits made through other instances
+    @Scheduled(fixedDelayString = "${cashback.rules.refresh-ms}", initialDelayString = "${cashback.rules.refresh-ms}")
+    public void refresh() {
+        try {
+            reload(false);
+        } catch (Exception e) {
+            logger.error("❌ Failed to refresh cashback rules, keeping the current table", e);
+        }
+    }
+
+    public synchronized void reload(boolean force) {
+        String version = cashbackRuleRepository.version();
+        if (!force && Objects.equals(version, loadedVersion)) {
+            return;
+        }
+        List<CashbackRule> rules = cashbackRuleRepository.findByEnabledTrue();
+        table = CashbackDecisionTable.compile(rules, currency, defaultRate);
+        loadedVersion = version;
+        logger.info("📐 Compiled {} cashback rule(s)", rules.size());
+    }
+}
@@ -0,0 +1,49 @@
+package com.dealsfinder.cashbackservice.rules;
+
+import java.time.LocalDateTime;
+
+// A CashbackRule reduced to primitives in minor units, so matching and pricing allocate nothing
+final class CompiledRule {
+
+    static final long PPM = 1_000_000;
+
+    final long ruleId;
+    final String category;       // only checked for deal-indexed rules; null = any
+    final String userTier;       // null = any
+    final long minSpendMinor;
+    final long ratePpm;          // parts per million of the amount, 50_000 = 5%
+    final long capMinor;         // Long.MAX_VALUE = uncapped
+    final LocalDateTime startsAt;
+    final LocalDateTime endsAt;
+    final int priority;
+
+    CompiledRule(long ruleId, String category, String userTier, long minSpendMinor, long ratePpm, long capMinor,
+                 LocalDateTime startsAt, LocalDateTime endsAt, int priority) {
+        this.ruleId = ruleId;
+        this.category = category;
+        this.userTier = userTier;
+        this.minSpendMinor = minSpendMinor;
+        this.ratePpm = ratePpm;
+        this.capMinor = capMinor;
+        this.startsAt = startsAt;
+        this.endsAt = endsAt;
+        this.priority = priority;
+    }
+
+    boolean matches(String dealCategory, String tier, long amountMinor, LocalDateTime at) {
+        return amountMinor >= minSpendMinor
+                && (category == null || category.equals(dealCategory))
+                && (userTier == null || userTier.equals(tier))
+                && (startsAt == null || !at.isBefore(startsAt))
+                && (endsAt == null || at.isBefore(endsAt));
+    }
+
+    long cashbackMinor(long amountMinor) {
+        return Math.min(applyRate(amountMinor, ratePpm), capMinor);
+    }
+
+    // Rounded half up
+    static long applyRate(long amountMinor, long ratePpm) {
+        return (Math.multiplyExact(amountMinor, ratePpm) + PPM / 2) / PPM;
+    }
+}
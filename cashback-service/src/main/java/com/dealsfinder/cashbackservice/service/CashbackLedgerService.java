@@ -0,0 +1,134 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.dealsfinder.cashbackservice.dto.CashbackCredit;
+import com.dealsfinder.cashbackservice.entity.CashbackRollup;
+import com.dealsfinder.cashbackservice.entity.CashbackRollupId;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+public class CashbackLedgerService {
+
+    private static final String INSERT_CASHBACK_SQL =
+            "insert into cashback (user_email, deal_id, cashback_amount, timestamp, source_message_id) values (?, ?, ?, ?, ?)";
+    static final String ADD_TO_TOTAL_SQL = "insert into cashback_summary (user_email, total_cashback) values (?, ?) " +
+            "on duplicate key update total_cashback = total_cashback + values(total_cashback)";
+    private static final String ADD_TO_ROLLUP_SQL = "insert into cashback_rollup (scope, scope_key, granularity, bucket_start, total, entry_count) " +
+            "values (?, ?, ?, ?, ?, ?) " +
+            "on duplicate key update total = total + values(total), entry_count = entry_count + values(entry_count)";
+
+    private static final Comparator<CashbackRollupId> ROLLUP_ORDER = Comparator.comparing(CashbackRollupId::getScope)
+            .thenComparing(CashbackRollupId::getScopeKey)
+            .thenComparing(CashbackRollupId::getGranularity)
+            .thenComparing(CashbackRollupId::getBucketStart);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Writes a whole consumer batch in one transaction: one JDBC batch for the ledger rows and one atomic
+    // increment per user for the summaries, however many credits that user had in the batch.
+    // Credits whose message is already in the ledger are skipped; returns the ones actually credited.
+    @Transactional
+    public List<CashbackCredit> credit(List<CashbackCredit> credits) {
+        credits = withoutRecorded(credits);
+        if (credits.isEmpty()) {
+            return credits;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_CASHBACK_SQL, credits, credits.size(), (ps, credit) -> {
+            ps.setString(1, credit.getUserEmail());
+            ps.setLong(2, credit.getDealId());
+            ps.setDouble(3, credit.getCashbackAmount());
+            ps.setTimestamp(4, Timestamp.valueOf(now));
+            ps.setString(5, credit.getMessageId());
+        });
+
+        applyTotals(credits, now.toLocalDate());
+        return credits;
+    }
+
+    // One indexed lookup for the whole batch; the unique constraint still catches a concurrent duplicate
+    private List<CashbackCredit> withoutRecorded(List<CashbackCredit> credits) {
+        List<String> messageIds = credits.stream().map(CashbackCredit::getMessageId).filter(Objects::nonNull).toList();
+        if (messageIds.isEmpty()) {
+            return credits;
+        }
+        Set<String> recorded = new HashSet<>(jdbcTemplate.queryForList(
+                "select source_message_id from cashback where source_message_id in ("
+                        + String.join(", ", Collections.nCopies(messageIds.size(), "?")) + ")",
+                String.class, messageIds.toArray()));
+        if (recorded.isEmpty()) {
+            return credits;
+        }
+        return credits.stream().filter(credit -> !recorded.contains(credit.getMessageId())).toList();
+    }
+
+    // Summary and rollup increments for ledger rows dated on the given day. Upserts are atomic (they create
+    // the row on first cashback), so concurrent credits cannot overwrite each other
+    @Transactional
+    public void applyTotals(List<CashbackCredit> credits, LocalDate day) {
+        List<Map.Entry<String, BigDecimal>> deltas = new ArrayList<>(foldByUser(credits).entrySet());
+        jdbcTemplate.batchUpdate(ADD_TO_TOTAL_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, delta.getKey());
+            ps.setDouble(2, delta.getValue().doubleValue());
+        });
+
+        List<CashbackRollup> rollups = new ArrayList<>(foldRollups(credits, day).values());
+        jdbcTemplate.batchUpdate(ADD_TO_ROLLUP_SQL, rollups, rollups.size(), (ps, rollup) -> {
+            CashbackRollupId id = rollup.getId();
+            ps.setString(1, id.getScope().name());
+            ps.setString(2, id.getScopeKey());
+            ps.setString(3, id.getGranularity().name());
+            ps.setDate(4, Date.valueOf(id.getBucketStart()));
+            ps.setDouble(5, rollup.getTotal());
+            ps.setLong(6, rollup.getEntryCount());
+        });
+    }
+
+    // Sorted by email so concurrent consumers always lock summary rows in the same order (no deadlocks)
+    static Map<String, BigDecimal> foldByUser(List<CashbackCredit> credits) {
+        Map<String, BigDecimal> deltas = new TreeMap<>();
+        for (CashbackCredit credit : credits) {
+            deltas.merge(credit.getUserEmail(), BigDecimal.valueOf(credit.getCashbackAmount()), BigDecimal::add);
+        }
+        return deltas;
+    }
+
+    // One row per user and per deal for the day and for its month, in a fixed order for the same reason
+    static Map<CashbackRollupId, CashbackRollup> foldRollups(List<CashbackCredit> credits, LocalDate day) {
+        Map<CashbackRollupId, CashbackRollup> rollups = new TreeMap<>(ROLLUP_ORDER);
+        for (CashbackCredit credit : credits) {
+            for (CashbackRollup.Granularity granularity : CashbackRollup.Granularity.values()) {
+                LocalDate bucketStart = granularity == CashbackRollup.Granularity.DAY ? day : day.withDayOfMonth(1);
+                addTo(rollups, new CashbackRollupId(CashbackRollup.Scope.USER, credit.getUserEmail(), granularity, bucketStart), credit);
+                addTo(rollups, new CashbackRollupId(CashbackRollup.Scope.DEAL, String.valueOf(credit.getDealId()), granularity, bucketStart), credit);
+            }
+        }
+        return rollups;
+    }
+
+    private static void addTo(Map<CashbackRollupId, CashbackRollup> rollups, CashbackRollupId id, CashbackCredit credit) {
+        rollups.merge(id, new CashbackRollup(id, credit.getCashbackAmount(), 1),
+                (current, added) -> new CashbackRollup(id,
+                        BigDecimal.valueOf(current.getTotal()).add(BigDecimal.valueOf(added.getTotal())).doubleValue(),
+                        current.getEntryCount() + added.getEntryCount()));
+    }
+}
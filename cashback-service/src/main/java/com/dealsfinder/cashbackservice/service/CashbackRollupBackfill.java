@@ -0,0 +1,56 @@
+package com.dealsfinder.cashbackservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Builds cashback_rollup from the ledger the first time the table exists. Runs before the listener
+// containers start, so no credit can be counted both here and by CashbackLedgerService. "insert ignore"
+// keeps two instances starting at once from doubling the buckets.
+@Component
+@RequiredArgsConstructor
+public class CashbackRollupBackfill implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(CashbackRollupBackfill.class);
+
+    private static final String[] BACKFILL_SQL = {
+            "insert ignore into cashback_rollup (scope, scope_key, granularity, bucket_start, total, entry_count) " +
+                    "select 'USER', user_email, 'DAY', date(timestamp), sum(cashback_amount), count(*) " +
+                    "from cashback group by user_email, date(timestamp)",
+            "insert ignore into cashback_rollup (scope, scope_key, granularity, bucket_start, total, entry_count) " +
+                    "select 'USER', user_email, 'MONTH', date_format(timestamp, '%Y-%m-01'), sum(cashback_amount), count(*) " +
+                    "from cashback group by user_email, date_format(timestamp, '%Y-%m-01')",
+            "insert ignore into cashback_rollup (scope, scope_key, granularity, bucket_start, total, entry_count) " +
+                    "select 'DEAL', cast(deal_id as char), 'DAY', date(timestamp), sum(cashback_amount), count(*) " +
+                    "from cashback group by deal_id, date(timestamp)",
+            "insert ignore into cashback_rollup (scope, scope_key, granularity, bucket_start, total, entry_count) " +
+                    "select 'DEAL', cast(deal_id as char), 'MONTH', date_format(timestamp, '%Y-%m-01'), sum(cashback_amount), count(*) " +
+                    "from cashback group by deal_id, date_format(timestamp, '%Y-%m-01')"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Boolean hasRollups = jdbcTemplate.queryForObject("select exists (select 1 from cashback_rollup)", Boolean.class);
+        if (Boolean.TRUE.equals(hasRollups)) {
+            return;
+        }
+
+        Integer buckets = transactionTemplate.execute(status -> {
+            int inserted = 0;
+            for (String sql : BACKFILL_SQL) {
+                inserted += jdbcTemplate.update(sql);
+            }
+            return inserted;
+        });
+        if (buckets != null && buckets > 0) {
+            logger.info("📊 Backfilled {} cashback rollup bucket(s) from the ledger", buckets);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.dealsfinder.cashbackservice.dto.CashbackTotal;
+import com.dealsfinder.cashbackservice.entity.CashbackRollup;
+import com.dealsfinder.cashbackservice.repository.CashbackRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CashbackRollupService {
+
+    // Lower bound for "all time" totals; ledger rows cannot predate the service
+    static final LocalDate EARLIEST = LocalDate.of(2000, 1, 1);
+
+    private final CashbackRollupRepository cashbackRollupRepository;
+
+    public CashbackTotal totalForUser(String userEmail, LocalDate from, LocalDate to) {
+        return total(CashbackRollup.Scope.USER, userEmail, from, to);
+    }
+
+    public CashbackTotal totalForDeal(long dealId, LocalDate from, LocalDate to) {
+        return total(CashbackRollup.Scope.DEAL, String.valueOf(dealId), from, to);
+    }
+
+    // [from, to] are inclusive days; either may be null for an open end
+    private CashbackTotal total(CashbackRollup.Scope scope, String scopeKey, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : EARLIEST;
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'.");
+        }
+
+        CashbackTotal total = new CashbackTotal(0.0, 0L);
+        for (BucketRange range : plan(start, end)) {
+            total = total.plus(cashbackRollupRepository.sumBuckets(scope, scopeKey, range.granularity(), range.from(), range.to()));
+        }
+        return total;
+    }
+
+    // Splits [from, to] into whole months plus the odd days either side, so any range reads at most
+    // ~60 daily buckets and one monthly bucket per month
+    static List<BucketRange> plan(LocalDate from, LocalDate to) {
+        LocalDate firstFullMonth = from.getDayOfMonth() == 1 ? from : from.withDayOfMonth(1).plusMonths(1);
+        LocalDate afterLastFullMonth = to.plusDays(1).withDayOfMonth(1);
+
+        List<BucketRange> ranges = new ArrayList<>();
+        if (!firstFullMonth.isBefore(afterLastFullMonth)) {
+            ranges.add(new BucketRange(CashbackRollup.Granularity.DAY, from, to));
+            return ranges;
+        }
+        if (from.isBefore(firstFullMonth)) {
+            ranges.add(new BucketRange(CashbackRollup.Granularity.DAY, from, firstFullMonth.minusDays(1)));
+        }
+        ranges.add(new BucketRange(CashbackRollup.Granularity.MONTH, firstFullMonth, afterLastFullMonth.minusMonths(1)));
+        if (!afterLastFullMonth.isAfter(to)) {
+            ranges.add(new BucketRange(CashbackRollup.Granularity.DAY, afterLastFullMonth, to));
+        }
+        return ranges;
+    }
+
+    record BucketRange(CashbackRollup.Granularity granularity, LocalDate from, LocalDate to) {
+    }
+}
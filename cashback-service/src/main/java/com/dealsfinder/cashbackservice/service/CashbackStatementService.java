@@ -0,0 +1,68 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.dealsfinder.cashbackservice.dto.CashbackDTO;
+import com.dealsfinder.cashbackservice.dto.CashbackPage;
+import com.dealsfinder.cashbackservice.repository.CashbackRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CashbackStatementService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final CashbackRepository cashbackRepository;
+
+    // [from, to] are inclusive calendar days; "after" is the opaque cursor from the previous page
+    public CashbackPage getStatement(String userEmail, LocalDate from, LocalDate to, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        LocalDateTime afterTimestamp = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            String[] cursor = decodeCursor(after);
+            try {
+                afterTimestamp = LocalDateTime.parse(cursor[0]);
+                afterId = Long.parseLong(cursor[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+        }
+
+        List<CashbackDTO> cashbacks = cashbackRepository.findStatement(
+                userEmail,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                afterTimestamp,
+                afterId,
+                PageRequest.of(0, limit));
+
+        String nextCursor = cashbacks.size() == limit ? encodeCursor(cashbacks.get(cashbacks.size() - 1)) : null;
+        return new CashbackPage(cashbacks, nextCursor);
+    }
+
+    private String encodeCursor(CashbackDTO last) {
+        String raw = last.getTimestamp() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Base64 decoding errors are IllegalArgumentExceptions too, so they surface as a 400 like the rest
+    private String[] decodeCursor(String after) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split("\\|", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid cursor: " + after);
+        }
+        return parts;
+    }
+}
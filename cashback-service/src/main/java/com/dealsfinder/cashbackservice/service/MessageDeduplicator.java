@@ -0,0 +1,65 @@
+package com.dealsfinder.cashbackservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Remembers recently credited message ids so redeliveries are dropped in O(1) without touching the DB.
+// Two generations rotate every window/2 (or sooner if one fills up), so memory stays bounded and an id
+// is remembered for between window/2 and window. It is exact rather than a Bloom filter: a false positive
+// would silently drop a real credit. Anything older, or lost on restart, is caught by the ledger's unique
+// source_message_id.
+@Service
+public class MessageDeduplicator {
+
+    private final long generationMs;
+    private final int maxPerGeneration;
+    private final LongSupplier clock;
+
+    private volatile Set<String> current = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> previous = ConcurrentHashMap.newKeySet();
+    private volatile long currentStartedAt;
+
+    public MessageDeduplicator(@Value("${cashback.dedup.window-ms}") long windowMs,
+                               @Value("${cashback.dedup.max-entries}") int maxEntries) {
+        this(windowMs, maxEntries, System::currentTimeMillis);
+    }
+
+    MessageDeduplicator(long windowMs, int maxEntries, LongSupplier clock) {
+        this.generationMs = windowMs / 2;
+        this.maxPerGeneration = maxEntries / 2;
+        this.clock = clock;
+        this.currentStartedAt = clock.getAsLong();
+    }
+
+    public boolean seen(String messageId) {
+        rotateIfDue();
+        return current.contains(messageId) || previous.contains(messageId);
+    }
+
+    // Only call once the credits are committed, so a failed attempt can still be retried
+    public void markSeen(Collection<String> messageIds) {
+        rotateIfDue();
+        current.addAll(messageIds);
+    }
+
+    private void rotateIfDue() {
+        long now = clock.getAsLong();
+        if (now - currentStartedAt < generationMs && current.size() < maxPerGeneration) {
+            return;
+        }
+        synchronized (this) {
+            if (now - currentStartedAt < generationMs && current.size() < maxPerGeneration) {
+                return;
+            }
+            // Two generations back is past the window: drop it wholesale
+            previous = now - currentStartedAt < 2 * generationMs ? current : ConcurrentHashMap.newKeySet();
+            current = ConcurrentHashMap.newKeySet();
+            currentStartedAt = now;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.dealsfinder.cashbackservice.config.RetryConfig.ATTEMPT_HEADER;
+import static com.dealsfinder.cashbackservice.config.RetryConfig.PARKING_QUEUE;
+import static com.dealsfinder.cashbackservice.config.RetryConfig.RETRY_QUEUE;
+
+// Moves parked messages back to the retry queue with a fresh set of retries, a batch at a time with a
+// pause in between so a replay cannot flood the database that made them fail
+@Service
+public class ParkingLotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParkingLotService.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public ParkingLotService(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    public long parkedCount() {
+        return rabbitTemplate.execute(channel -> channel.messageCount(PARKING_QUEUE));
+    }
+
+    public int replay(int max, int batchSize, long pauseMs) throws InterruptedException {
+        int replayed = 0;
+        while (replayed < max) {
+            int moved = moveBatch(Math.min(batchSize, max - replayed));
+            replayed += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            Thread.sleep(pauseMs);
+        }
+        logger.info("♻️ Replayed {} parked message(s)", replayed);
+        return replayed;
+    }
+
+    // Each message is acked only after it has been republished, so a failure midway loses nothing
+    private int moveBatch(int size) {
+        return rabbitTemplate.execute(channel -> {
+            int moved = 0;
+            while (moved < size) {
+                GetResponse response = channel.basicGet(PARKING_QUEUE, false);
+                if (response == null) {
+                    break;
+                }
+                AMQP.BasicProperties props = response.getProps();
+                Map<String, Object> headers = new HashMap<>(props.getHeaders() != null ? props.getHeaders() : Map.of());
+                headers.put(ATTEMPT_HEADER, 0);
+                channel.basicPublish("", RETRY_QUEUE, props.builder().headers(headers).build(), response.getBody());
+                channel.basicAck(response.getEnvelope().getDeliveryTag(), false);
+                moved++;
+            }
+            return moved;
+        });
+    }
+}
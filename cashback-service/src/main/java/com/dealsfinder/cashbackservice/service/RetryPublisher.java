@@ -0,0 +1,45 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.dealsfinder.cashbackservice.config.RetryConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import static com.dealsfinder.cashbackservice.config.RetryConfig.ATTEMPT_HEADER;
+import static com.dealsfinder.cashbackservice.config.RetryConfig.ERROR_HEADER;
+
+@Service
+public class RetryPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final long[] delaysMs;
+
+    public RetryPublisher(RabbitTemplate rabbitTemplate, @Value("${cashback.retry.delays-ms}") long[] delaysMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.delaysMs = delaysMs;
+    }
+
+    // attempt is how many retries the payload has already had; 0 on its first failure
+    public void retry(Object payload, int attempt, Exception cause) {
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        if (attempt < delaysMs.length) {
+            send(RetryConfig.tierQueue(delaysMs[attempt]), payload, attempt + 1, error);
+            logger.warn("🔁 Retry {} of {} scheduled in {} ms for {}", attempt + 1, delaysMs.length, delaysMs[attempt], payload);
+        } else {
+            send(RetryConfig.PARKING_QUEUE, payload, attempt, error);
+            logger.error("🅿️ Parked after {} retries: {}", attempt, payload);
+        }
+    }
+
+    private void send(String queue, Object payload, int attempt, String error) {
+        rabbitTemplate.convertAndSend(queue, payload, message -> {
+            message.getMessageProperties().setHeader(ATTEMPT_HEADER, attempt);
+            message.getMessageProperties().setHeader(ERROR_HEADER, error);
+            return message;
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.dealsfinder.cashbackservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Compares each user's ledger total with their summary total (both from one snapshot) and hands the
+// differences to the writer, batch-size corrections at a time. One instance per partition, not thread-safe.
+class SummaryDriftCollector {
+
+    // Differences below this are floating-point noise from summing doubles, not drift
+    private static final double TOLERANCE = 0.000001;
+
+    private final int batchSize;
+    private final Consumer<List<Map.Entry<String, Double>>> writer;
+    private final List<Map.Entry<String, Double>> corrections;
+    private long usersScanned;
+    private long usersCorrected;
+
+    SummaryDriftCollector(int batchSize, Consumer<List<Map.Entry<String, Double>>> writer) {
+        this.batchSize = batchSize;
+        this.writer = writer;
+        this.corrections = new ArrayList<>(batchSize);
+    }
+
+    // summaryTotal is 0 for a user with no summary row, ledgerTotal is 0 for a summary with no ledger rows
+    void add(String userEmail, double ledgerTotal, double summaryTotal) {
+        usersScanned++;
+        double drift = ledgerTotal - summaryTotal;
+        if (Math.abs(drift) < TOLERANCE) {
+            return;
+        }
+        usersCorrected++;
+        corrections.add(Map.entry(userEmail, drift));
+        if (corrections.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    void flush() {
+        if (corrections.isEmpty()) {
+            return;
+        }
+        writer.accept(List.copyOf(corrections));
+        corrections.clear();
+    }
+
+    long getUsersScanned() {
+        return usersScanned;
+    }
+
+    long getUsersCorrected() {
+        return usersCorrected;
+    }
+}
@@ -0,0 +1,317 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.dealsfinder.cashbackservice.dto.SummaryRebuildProgress;
+import com.dealsfinder.cashbackservice.entity.SummaryRebuildCheckpoint;
+import com.dealsfinder.cashbackservice.entity.SummaryRebuildJob;
+import com.dealsfinder.cashbackservice.repository.SummaryRebuildCheckpointRepository;
+import com.dealsfinder.cashbackservice.repository.SummaryRebuildJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Recomputes every CashbackSummary from the ledger. Users are split into user_email key ranges that run in
+// parallel on a ForkJoinPool, so each partition is a range scan of idx_cashback_user_timestamp rather than
+// a full scan. Range boundaries are NTILE cut points over the distinct emails in that index. Each partition
+// streams per-user ledger sums next to the current summary, read in one REPEATABLE READ snapshot. Since
+// consumers write a ledger row and its summary increment in one transaction, the difference seen there is
+// exactly the drift. Applying it with the consumers' own atomic increment repairs the summary without losing
+// credits that land while the job runs. Applying it twice would corrupt the summary, so a job only runs once
+// claimed in summary_rebuild_job, and only while no other job is alive on any instance.
+@Service
+public class SummaryRebuildService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SummaryRebuildService.class);
+
+    // First email of each tile; the distinct emails come off the index without touching table rows
+    private static final String TILE_STARTS_SQL =
+            "select min(user_email) from (select user_email, ntile(?) over (order by user_email) as tile " +
+                    "from (select distinct user_email from cashback) users) tiles group by tile order by tile";
+    private static final String LEDGER_TOTALS_SQL =
+            "select c.user_email, sum(c.cashback_amount) as ledger_total, max(s.total_cashback) as summary_total " +
+                    "from cashback c left join cashback_summary s on s.user_email = c.user_email " +
+                    "where %s group by c.user_email";
+    private static final String ORPHAN_SUMMARIES_SQL =
+            "select s.user_email, s.total_cashback from cashback_summary s " +
+                    "where %s and not exists (select 1 from cashback c where c.user_email = s.user_email)";
+    private static final String LIVE_JOBS_SQL =
+            "select count(*) from summary_rebuild_job where status = 'RUNNING' and heartbeat_at >= ?";
+    // Must change exactly one row: the job is not completed, not alive elsewhere, and no other job is alive.
+    // A RUNNING job whose heartbeat went stale was left by a dead instance and can be taken over; a new job
+    // has no heartbeat until it is claimed.
+    private static final String CLAIM_SQL =
+            "update summary_rebuild_job set status = 'RUNNING', owner = ?, heartbeat_at = ?, finished_at = null, error = null " +
+                    "where id = ? and status <> 'COMPLETED' and (status <> 'RUNNING' or heartbeat_at is null or heartbeat_at < ?) " +
+                    "and not exists (select 1 from (select id from summary_rebuild_job " +
+                    "where status = 'RUNNING' and heartbeat_at >= ? and id <> ?) live)";
+    // Also the fence for every write: it fails once another instance has taken the job over
+    private static final String HEARTBEAT_SQL =
+            "update summary_rebuild_job set heartbeat_at = ? where id = ? and owner = ? and status = 'RUNNING'";
+    private static final String FINISH_SQL =
+            "update summary_rebuild_job set status = ?, finished_at = ?, error = ? " +
+                    "where id = ? and owner = ? and status = 'RUNNING'";
+
+    // user_email >= from and < to; a null end is open
+    record KeyRange(String from, String to) {
+
+        String condition(String column) {
+            List<String> bounds = new ArrayList<>();
+            if (from != null) {
+                bounds.add(column + " >= ?");
+            }
+            if (to != null) {
+                bounds.add(column + " < ?");
+            }
+            return bounds.isEmpty() ? "1 = 1" : String.join(" and ", bounds);
+        }
+
+        Object[] args() {
+            return Stream.of(from, to).filter(Objects::nonNull).toArray();
+        }
+    }
+
+    private final SummaryRebuildJobRepository jobRepository;
+    private final SummaryRebuildCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ExecutorService jobRunner = Executors.newSingleThreadExecutor();
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile Long activeJobId;
+
+    @Value("${cashback.rebuild.partitions}")
+    private int partitions;
+
+    @Value("${cashback.rebuild.parallelism}")
+    private int parallelism;
+
+    @Value("${cashback.rebuild.batch-size}")
+    private int batchSize;
+
+    @Value("${cashback.rebuild.stale-after-ms}")
+    private long staleAfterMs;
+
+    public SummaryRebuildService(SummaryRebuildJobRepository jobRepository,
+                                 SummaryRebuildCheckpointRepository checkpointRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // MySQL Connector/J only streams rows (instead of buffering the whole result) with this fetch size
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        // Corrections commit on their own connection while the snapshot's result set is still streaming
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public SummaryRebuildJob start() {
+        Integer live = jdbcTemplate.queryForObject(LIVE_JOBS_SQL, Integer.class, staleBefore());
+        if (live != null && live > 0) {
+            throw new IllegalStateException("A summary rebuild is already running.");
+        }
+        List<String> boundaries = boundaries(jdbcTemplate.queryForList(TILE_STARTS_SQL, String.class, partitions));
+        SummaryRebuildJob job = jobRepository.save(SummaryRebuildJob.builder()
+                .partitionCount(boundaries.size() + 1)
+                .boundaries(new ArrayList<>(boundaries))
+                .status(SummaryRebuildJob.Status.RUNNING)
+                .startedAt(LocalDateTime.now())
+                .build());
+        // Another instance may have started one since the check above
+        if (!claim(job.getId())) {
+            jobRepository.delete(job);
+            throw new IllegalStateException("A summary rebuild is already running.");
+        }
+        launch(job);
+        return job;
+    }
+
+    // Picks up a failed or interrupted job from its last checkpoints
+    public SummaryRebuildJob resume(long jobId) {
+        SummaryRebuildJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("No rebuild job " + jobId));
+        if (job.getStatus() == SummaryRebuildJob.Status.COMPLETED) {
+            throw new IllegalArgumentException("Rebuild job " + jobId + " has already completed.");
+        }
+        if (job.getBoundaries().size() + 1 != job.getPartitionCount()) {
+            throw new IllegalArgumentException("Rebuild job " + jobId + " predates key-range partitions; start a new job.");
+        }
+        if (!claim(jobId)) {
+            throw new IllegalStateException("Rebuild job " + jobId + " or another summary rebuild is still running.");
+        }
+        launch(job);
+        return job;
+    }
+
+    public Optional<SummaryRebuildProgress> getProgress(long jobId) {
+        return jobRepository.findById(jobId).map(job -> {
+            List<SummaryRebuildCheckpoint> checkpoints = checkpointRepository.findByJobId(jobId);
+            boolean alive = job.getStatus() == SummaryRebuildJob.Status.RUNNING && job.getHeartbeatAt() != null
+                    && !job.getHeartbeatAt().isBefore(staleBefore());
+            return new SummaryRebuildProgress(job.getId(), job.getStatus(), alive,
+                    job.getPartitionCount(), checkpoints.size(),
+                    checkpoints.stream().mapToLong(SummaryRebuildCheckpoint::getUsersScanned).sum(),
+                    checkpoints.stream().mapToLong(SummaryRebuildCheckpoint::getUsersCorrected).sum(),
+                    job.getStartedAt(), job.getFinishedAt(), job.getError());
+        });
+    }
+
+    // Keeps the claim alive while partitions run that have nothing to correct
+    @Scheduled(fixedDelayString = "${cashback.rebuild.heartbeat-interval-ms}")
+    public void heartbeat() {
+        Long jobId = activeJobId;
+        if (jobId != null && jdbcTemplate.update(HEARTBEAT_SQL, LocalDateTime.now(), jobId, instanceId) == 0) {
+            logger.warn("⚠️ Summary rebuild {} was taken over by another instance", jobId);
+        }
+    }
+
+    private boolean claim(long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = staleBefore();
+        return jdbcTemplate.update(CLAIM_SQL, instanceId, now, jobId, staleBefore, staleBefore, jobId) == 1;
+    }
+
+    private LocalDateTime staleBefore() {
+        return LocalDateTime.now().minus(staleAfterMs, ChronoUnit.MILLIS);
+    }
+
+    private void launch(SummaryRebuildJob job) {
+        job.setStatus(SummaryRebuildJob.Status.RUNNING);
+        job.setFinishedAt(null);
+        job.setError(null);
+        activeJobId = job.getId();
+        try {
+            jobRunner.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    activeJobId = null;
+                }
+            });
+        } catch (RuntimeException e) {
+            activeJobId = null;
+            finish(job, SummaryRebuildJob.Status.FAILED, e.getMessage());
+            throw e;
+        }
+    }
+
+    private void run(SummaryRebuildJob job) {
+        Set<Integer> done = checkpointRepository.findByJobId(job.getId()).stream()
+                .map(SummaryRebuildCheckpoint::getPartitionNo)
+                .collect(Collectors.toSet());
+        List<Integer> remaining = remainingPartitions(job.getPartitionCount(), done);
+        logger.info("🧮 Summary rebuild {} running {} of {} partition(s)", job.getId(), remaining.size(), job.getPartitionCount());
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> remaining.parallelStream().forEach(partition -> rebuildPartition(job, partition))).get();
+            finish(job, SummaryRebuildJob.Status.COMPLETED, null);
+            logger.info("✅ Summary rebuild {} completed", job.getId());
+        } catch (Exception e) {
+            finish(job, SummaryRebuildJob.Status.FAILED, e.getMessage());
+            logger.error("❌ Summary rebuild {} failed; resume it to continue from its checkpoints", job.getId(), e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Written only while this instance still owns the job, so a lost claim cannot overwrite the new owner's run
+    private void finish(SummaryRebuildJob job, SummaryRebuildJob.Status status, String error) {
+        job.setStatus(status);
+        job.setError(error);
+        job.setFinishedAt(LocalDateTime.now());
+        if (jdbcTemplate.update(FINISH_SQL, status.name(), job.getFinishedAt(), error, job.getId(), instanceId) == 0) {
+            logger.warn("⚠️ Summary rebuild {} is no longer owned by this instance; its status was left alone", job.getId());
+        }
+    }
+
+    private void rebuildPartition(SummaryRebuildJob job, int partition) {
+        KeyRange range = keyRange(job.getBoundaries(), partition);
+        SummaryDriftCollector collector = new SummaryDriftCollector(batchSize, corrections -> applyCorrections(job, corrections));
+
+        snapshotTransaction.executeWithoutResult(status -> {
+            streamingJdbcTemplate.query(LEDGER_TOTALS_SQL.formatted(range.condition("c.user_email")), rs -> {
+                collector.add(rs.getString("user_email"), rs.getDouble("ledger_total"), rs.getDouble("summary_total"));
+            }, range.args());
+            streamingJdbcTemplate.query(ORPHAN_SUMMARIES_SQL.formatted(range.condition("s.user_email")), rs -> {
+                collector.add(rs.getString("user_email"), 0, rs.getDouble("total_cashback"));
+            }, range.args());
+            collector.flush();
+        });
+
+        checkpointRepository.save(SummaryRebuildCheckpoint.builder()
+                .jobId(job.getId())
+                .partitionNo(partition)
+                .usersScanned(collector.getUsersScanned())
+                .usersCorrected(collector.getUsersCorrected())
+                .completedAt(LocalDateTime.now())
+                .build());
+        if (collector.getUsersCorrected() > 0) {
+            logger.info("🧮 Rebuild {} partition {}: corrected {} of {} user(s)", job.getId(), partition,
+                    collector.getUsersCorrected(), collector.getUsersScanned());
+        }
+    }
+
+    // The heartbeat locks the job row for the batch, so a takeover either happens before it (and the batch is
+    // refused) or waits until the batch has committed
+    private void applyCorrections(SummaryRebuildJob job, List<Map.Entry<String, Double>> corrections) {
+        writeTransaction.executeWithoutResult(status -> {
+            if (jdbcTemplate.update(HEARTBEAT_SQL, LocalDateTime.now(), job.getId(), instanceId) == 0) {
+                throw new IllegalStateException("Summary rebuild " + job.getId() + " was taken over by another instance.");
+            }
+            jdbcTemplate.batchUpdate(CashbackLedgerService.ADD_TO_TOTAL_SQL, corrections, corrections.size(), (ps, correction) -> {
+                ps.setString(1, correction.getKey());
+                ps.setDouble(2, correction.getValue());
+            });
+        });
+    }
+
+    // Tile starts are sorted and unique; the first one only opens partition 0, which is unbounded below anyway
+    static List<String> boundaries(List<String> tileStarts) {
+        return tileStarts.size() <= 1 ? List.of() : List.copyOf(tileStarts.subList(1, tileStarts.size()));
+    }
+
+    static KeyRange keyRange(List<String> boundaries, int partition) {
+        return new KeyRange(partition == 0 ? null : boundaries.get(partition - 1),
+                partition == boundaries.size() ? null : boundaries.get(partition));
+    }
+
+    static List<Integer> remainingPartitions(int partitionCount, Set<Integer> done) {
+        return IntStream.range(0, partitionCount).filter(partition -> !done.contains(partition)).boxed().toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+    }
+}
@@ -1,30 +1,214 @@
 package com.dealsfinder.cashbackservice.service;
 
 import com.dealsfinder.cashbackservice.dto.UserDTO;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Async user-service client. Lookups are answered from a TTL cache, including "no such user" for a shorter
+// time. Concurrent lookups for one email share a single in-flight future. Misses wait up to batch-window-ms
+// so a burst goes out as one POST /users/lookup rather than one GET per email. Failures are not cached; the
+// future completes exceptionally and the next lookup tries again.
 @Slf4j
 @Service
 public class UserClientService {
 
     private static final String USER_SERVICE_URL = "http://USER-SERVICE/users/email/";
+    private static final String USER_LOOKUP_URL = "http://USER-SERVICE/users/lookup";
+    private static final ParameterizedTypeReference<List<UserDTO>> USER_LIST = new ParameterizedTypeReference<>() {};
+
+    private record CachedUser(UserDTO user, long expiresAt) {}
+
+    private final RestTemplate restTemplate;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final int maxEntries;
+    private final long batchWindowMs;
+    private final int maxBatchSize;
+    private final LongSupplier clock;
+
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<UserDTO>> inFlight = new ConcurrentHashMap<>();
+    private final List<String> pending = new ArrayList<>();
+    private final ScheduledExecutorService batchTimer = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService requestExecutor;
 
     @Autowired
-    private RestTemplate restTemplate;
+    public UserClientService(RestTemplate restTemplate,
+                             @Value("${cashback.users.cache-ttl-ms}") long ttlMs,
+                             @Value("${cashback.users.negative-ttl-ms}") long negativeTtlMs,
+                             @Value("${cashback.users.cache-max-entries}") int maxEntries,
+                             @Value("${cashback.users.batch-window-ms}") long batchWindowMs,
+                             @Value("${cashback.users.batch-size}") int maxBatchSize,
+                             @Value("${cashback.users.max-concurrent-requests}") int maxConcurrentRequests) {
+        this(restTemplate, ttlMs, negativeTtlMs, maxEntries, batchWindowMs, maxBatchSize,
+                Executors.newFixedThreadPool(maxConcurrentRequests), System::currentTimeMillis);
+    }
+
+    UserClientService(RestTemplate restTemplate, long ttlMs, long negativeTtlMs, int maxEntries, long batchWindowMs,
+                      int maxBatchSize, ExecutorService requestExecutor, LongSupplier clock) {
+        this.restTemplate = restTemplate;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.maxEntries = maxEntries;
+        this.batchWindowMs = batchWindowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.requestExecutor = requestExecutor;
+        this.clock = clock;
+    }
+
+    // Completes with null when user-service has no such user
+    public CompletableFuture<UserDTO> getUserByEmail(String email) {
+        CachedUser cached = cache.get(email);
+        if (cached != null && cached.expiresAt() > clock.getAsLong()) {
+            return CompletableFuture.completedFuture(cached.user());
+        }
+        boolean[] created = new boolean[1];
+        CompletableFuture<UserDTO> future = inFlight.computeIfAbsent(email, key -> {
+            created[0] = true;
+            return new CompletableFuture<>();
+        });
+        if (created[0]) {
+            enqueue(email);
+        }
+        return future;
+    }
 
-    public UserDTO getUserByEmail(String email) {
+    // Users by email; emails user-service does not know are left out
+    public CompletableFuture<Map<String, UserDTO>> getUsersByEmail(Collection<String> emails) {
+        Map<String, CompletableFuture<UserDTO>> futures = new HashMap<>();
+        emails.forEach(email -> futures.computeIfAbsent(email, this::getUserByEmail));
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).thenApply(done -> {
+            Map<String, UserDTO> users = new HashMap<>();
+            futures.forEach((email, future) -> {
+                UserDTO user = future.join();
+                if (user != null) {
+                    users.put(email, user);
+                }
+            });
+            return users;
+        });
+    }
+
+    private void enqueue(String email) {
+        synchronized (pending) {
+            pending.add(email);
+            if (pending.size() >= maxBatchSize) {
+                dispatch(drainPending());
+            } else if (pending.size() == 1) {
+                batchTimer.schedule(this::flush, batchWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        List<String> batch;
+        synchronized (pending) {
+            batch = drainPending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private List<String> drainPending() {
+        List<String> batch = new ArrayList<>(pending);
+        pending.clear();
+        return batch;
+    }
+
+    private void dispatch(List<String> emails) {
+        try {
+            requestExecutor.execute(() -> fetch(emails));
+        } catch (RuntimeException e) {
+            fail(emails, e);
+        }
+    }
+
+    private void fetch(List<String> emails) {
+        Map<String, UserDTO> found = new HashMap<>();
+        try {
+            if (emails.size() == 1) {
+                UserDTO user = fetchOne(emails.get(0));
+                if (user != null) {
+                    found.put(emails.get(0), user);
+                }
+            } else {
+                List<UserDTO> users = restTemplate.exchange(USER_LOOKUP_URL, HttpMethod.POST, new HttpEntity<>(emails), USER_LIST)
+                        .getBody();
+                if (users != null) {
+                    users.forEach(user -> found.put(user.getEmail(), user));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("❌ Failed to fetch user info for {} email(s)", emails.size(), e);
+            fail(emails, e);
+            return;
+        }
+
+        long now = clock.getAsLong();
+        evictIfFull(now);
+        for (String email : emails) {
+            UserDTO user = found.get(email);
+            cache.put(email, new CachedUser(user, now + (user != null ? ttlMs : negativeTtlMs)));
+            CompletableFuture<UserDTO> future = inFlight.remove(email);
+            if (future != null) {
+                future.complete(user);
+            }
+        }
+    }
+
+    private UserDTO fetchOne(String email) {
         try {
-            String url = USER_SERVICE_URL + email;
-            ResponseEntity<UserDTO> response = restTemplate.getForEntity(url, UserDTO.class);
-            return response.getBody();
-        } catch (Exception e) {
-            log.error("Failed to fetch user info for email: " + email, e);
+            return restTemplate.getForEntity(USER_SERVICE_URL + email, UserDTO.class).getBody();
+        } catch (HttpClientErrorException.NotFound e) {
             return null;
         }
     }
+
+    private void fail(List<String> emails, Throwable cause) {
+        for (String email : emails) {
+            CompletableFuture<UserDTO> future = inFlight.remove(email);
+            if (future != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    private void evictIfFull(long now) {
+        if (cache.size() < maxEntries) {
+            return;
+        }
+        cache.values().removeIf(cached -> cached.expiresAt() <= now);
+        // Still full of live entries: start over rather than track recency on every hit
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchTimer.shutdownNow();
+        requestExecutor.shutdownNow();
+    }
 }
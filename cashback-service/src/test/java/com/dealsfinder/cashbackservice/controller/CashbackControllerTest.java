@@ -1,9 +1,15 @@
 package com.dealsfinder.cashbackservice.controller;
 
+import com.dealsfinder.cashbackservice.dto.CashbackDTO;
+import com.dealsfinder.cashbackservice.dto.CashbackPage;
+import com.dealsfinder.cashbackservice.dto.CashbackTotal;
 import com.dealsfinder.cashbackservice.entity.Cashback;
 import com.dealsfinder.cashbackservice.entity.CashbackSummary;
 import com.dealsfinder.cashbackservice.repository.CashbackRepository;
 import com.dealsfinder.cashbackservice.repository.CashbackSummaryRepository;
+import com.dealsfinder.cashbackservice.service.CashbackLedgerService;
+import com.dealsfinder.cashbackservice.service.CashbackRollupService;
+import com.dealsfinder.cashbackservice.service.CashbackStatementService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -15,6 +21,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +43,15 @@ public class CashbackControllerTest {
     @MockBean
     private CashbackSummaryRepository cashbackSummaryRepository;
 
+    @MockBean
+    private CashbackLedgerService cashbackLedgerService;
+
+    @MockBean
+    private CashbackRollupService cashbackRollupService;
+
+    @MockBean
+    private CashbackStatementService cashbackStatementService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -74,30 +90,28 @@ public class CashbackControllerTest {
     public void testGetCashbackForUser() throws Exception {
         String email = "user@example.com";
 
-        Cashback cashback1 = Cashback.builder()
-                .id(1L)
-                .userEmail(email)
-                .dealId(101L)
-                .cashbackAmount(25.0)
-                .timestamp(LocalDateTime.now())
-                .build();
-
-        Cashback cashback2 = Cashback.builder()
-                .id(2L)
-                .userEmail(email)
-                .dealId(102L)
-                .cashbackAmount(35.0)
-                .timestamp(LocalDateTime.now())
-                .build();
+        CashbackPage page = new CashbackPage(List.of(
+                new CashbackDTO(2L, 102L, 35.0, LocalDateTime.now()),
+                new CashbackDTO(1L, 101L, 25.0, LocalDateTime.now().minusDays(1))), "next-page");
 
-        Mockito.when(cashbackRepository.findByUserEmail(email)).thenReturn(List.of(cashback1, cashback2));
+        Mockito.when(cashbackStatementService.getStatement(email, null, null, null, 20)).thenReturn(page);
 
         mockMvc.perform(get("/cashback/user/{email}", email))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].dealId").value(101L))
-                .andExpect(jsonPath("$[0].cashbackAmount").value(25.0))
-                .andExpect(jsonPath("$[1].dealId").value(102L))
-                .andExpect(jsonPath("$[1].cashbackAmount").value(35.0));
+                .andExpect(jsonPath("$.cashbacks[0].dealId").value(102L))
+                .andExpect(jsonPath("$.cashbacks[0].cashbackAmount").value(35.0))
+                .andExpect(jsonPath("$.cashbacks[1].dealId").value(101L))
+                .andExpect(jsonPath("$.cashbacks[1].cashbackAmount").value(25.0))
+                .andExpect(jsonPath("$.nextCursor").value("next-page"));
+    }
+
+    @Test
+    public void testGetCashbackForUser_InvalidCursor() throws Exception {
+        Mockito.when(cashbackStatementService.getStatement(eq("user@example.com"), isNull(), isNull(), eq("bogus"), eq(20)))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bogus"));
+
+        mockMvc.perform(get("/cashback/user/{email}", "user@example.com").param("after", "bogus"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -116,15 +130,23 @@ public class CashbackControllerTest {
     public void testGetTotalCashbackFromTransactions() throws Exception {
         String email = "user@example.com";
 
-        List<Cashback> cashbacks = List.of(
-                new Cashback(1L, email, 201L, 10.0, LocalDateTime.now()),
-                new Cashback(2L, email, 202L, 15.0, LocalDateTime.now())
-        );
-
-        Mockito.when(cashbackRepository.findByUserEmail(email)).thenReturn(cashbacks);
+        Mockito.when(cashbackRollupService.totalForUser(email, null, null)).thenReturn(new CashbackTotal(25.0, 2L));
 
         mockMvc.perform(get("/cashback/user/{email}/total", email))
                 .andExpect(status().isOk())
                 .andExpect(content().string("25.0"));
     }
+
+    @Test
+    public void testGetTotalCashbackForDealInRange() throws Exception {
+        LocalDate from = LocalDate.of(2024, 1, 15);
+        LocalDate to = LocalDate.of(2024, 3, 10);
+
+        Mockito.when(cashbackRollupService.totalForDeal(7L, from, to)).thenReturn(new CashbackTotal(42.5, 3L));
+
+        mockMvc.perform(get("/cashback/deal/{dealId}/total", 7L).param("from", "2024-01-15").param("to", "2024-03-10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(42.5))
+                .andExpect(jsonPath("$.entryCount").value(3));
+    }
 }
@@ -0,0 +1,88 @@
+package com.dealsfinder.cashbackservice.rules;
+
+import com.dealsfinder.cashbackservice.entity.CashbackRule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Run with (exec:exec so the forked benchmark JVM gets the test classpath):
+//   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+//       "-Dexec.args=-cp %classpath com.dealsfinder.cashbackservice.rules.CashbackDecisionTableBenchmark"
+// The GC profiler's gc.alloc.rate.norm should stay at ~0 B/op for evaluate.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CashbackDecisionTableBenchmark {
+
+    private static final String[] CATEGORIES = {"Food", "Travel", "Electronics", "Fashion", "Grocery", "Books"};
+    private static final String[] TIERS = {"USER", "PREMIUM", "GOLD"};
+
+    @Param({"10", "1000"})
+    public int ruleCount;
+
+    private CashbackDecisionTable table;
+    private long[] dealIds;
+    private String[] categories;
+    private String[] tiers;
+    private long[] amounts;
+    private LocalDateTime at;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.of(2024, 6, 15, 12, 0);
+        List<CashbackRule> rules = new ArrayList<>();
+        for (int i = 0; i < ruleCount; i++) {
+            CashbackRule.CashbackRuleBuilder rule = CashbackRule.builder()
+                    .id((long) i)
+                    .rate(BigDecimal.valueOf(1 + i % 20, 2))
+                    .priority(i % 5)
+                    .enabled(true);
+            switch (i % 4) {
+                case 0 -> rule.dealId((long) i);
+                case 1 -> rule.category(CATEGORIES[i % CATEGORIES.length]);
+                case 2 -> rule.category(CATEGORIES[i % CATEGORIES.length]).userTier(TIERS[i % TIERS.length]);
+                default -> rule.minSpend(BigDecimal.valueOf(100 + i)).maxCashback(BigDecimal.valueOf(50))
+                        .startsAt(now.minusDays(1)).endsAt(now.plusDays(1));
+            }
+            rules.add(rule.build());
+        }
+        table = CashbackDecisionTable.compile(rules, "INR", new BigDecimal("0.05"));
+
+        dealIds = new long[1024];
+        categories = new String[1024];
+        tiers = new String[1024];
+        amounts = new long[1024];
+        for (int i = 0; i < 1024; i++) {
+            dealIds[i] = i * 7L % (ruleCount * 2L);
+            categories[i] = CATEGORIES[i % CATEGORIES.length];
+            tiers[i] = TIERS[i % TIERS.length];
+            amounts[i] = 1_000 + i * 137L;
+        }
+        at = now;
+    }
+
+    @Benchmark
+    public long evaluate() {
+        int i = next++ & 1023;
+        return table.cashbackMinor(dealIds[i], categories[i], tiers[i], amounts[i], "INR", at);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CashbackDecisionTableBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package com.dealsfinder.cashbackservice.rules;
+
+import com.dealsfinder.cashbackservice.entity.CashbackRule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CashbackDecisionTableTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 15, 12, 0);
+
+    private static CashbackRule.CashbackRuleBuilder rule(long id, String rate) {
+        return CashbackRule.builder().id(id).rate(new BigDecimal(rate)).enabled(true);
+    }
+
+    @Test
+    void testNoRules_DefaultRate() {
+        CashbackDecisionTable table = CashbackDecisionTable.compile(List.of(), "INR", new BigDecimal("0.05"));
+
+        assertEquals(503, table.cashbackMinor(1L, "Food", null, 10_050, "INR", NOW));
+        assertFalse(table.usesUserTier());
+    }
+
+    @Test
+    void testDealRuleBeatsCategoryRuleOnEqualPriority() {
+        CashbackDecisionTable table = CashbackDecisionTable.compile(List.of(
+                rule(1, "0.10").category("Food").build(),
+                rule(2, "0.20").dealId(7L).build()), "INR", new BigDecimal("0.05"));
+
+        assertEquals(2_000, table.cashbackMinor(7L, "Food", null, 10_000, "INR", NOW));
+        assertEquals(1_000, table.cashbackMinor(8L, "Food", null, 10_000, "INR", NOW));
+        assertEquals(500, table.cashbackMinor(8L, "Travel", null, 10_000, "INR", NOW));
+    }
+
+    @Test
+    void testHigherPriorityGlobalRuleWins() {
+        CashbackDecisionTable table = CashbackDecisionTable.compile(List.of(
+                rule(1, "0.10").category("Food").build(),
+                rule(2, "0.15").priority(5).build()), "INR", new BigDecimal("0.05"));
+
+        assertEquals(1_500, table.cashbackMinor(7L, "Food", null, 10_000, "INR", NOW));
+    }
+
+    @Test
+    void testMinSpendCapAndTier() {
+        CashbackDecisionTable table = CashbackDecisionTable.compile(List.of(
+                rule(1, "0.10").userTier("PREMIUM").minSpend(new BigDecimal("500")).maxCashback(new BigDecimal("75.50")).build()),
+                "INR", new BigDecimal("0.05"));
+
+        assertTrue(table.usesUserTier());
+        assertEquals(7_550, table.cashbackMinor(1L, null, "PREMIUM", 100_000, "INR", NOW));
+        assertEquals(2_500, table.cashbackMinor(1L, null, "USER", 50_000, "INR", NOW));
+        assertEquals(2_000, table.cashbackMinor(1L, null, "PREMIUM", 40_000, "INR", NOW));
+    }
+
+    @Test
+    void testCampaignWindowIsStartInclusiveEndExclusive() {
+        CashbackDecisionTable table = CashbackDecisionTable.compile(List.of(
+                rule(1, "0.25").startsAt(NOW).endsAt(NOW.plusDays(1)).build()), "INR", new BigDecimal("0.05"));
+
+        assertEquals(2_500, table.cashbackMinor(1L, null, null, 10_000, "INR", NOW));
+        assertEquals(500, table.cashbackMinor(1L, null, null, 10_000, "INR", NOW.minusSeconds(1)));
+        assertEquals(500, table.cashbackMinor(1L, null, null, 10_000, "INR", NOW.plusDays(1)));
+    }
+
+    @Test
+    void testOtherCurrencyGetsDefaultRate() {
+        CashbackDecisionTable table = CashbackDecisionTable.compile(List.of(rule(1, "0.50").build()),
+                "INR", new BigDecimal("0.05"));
+
+        assertEquals(500, table.cashbackMinor(1L, null, null, 10_000, "USD", NOW));
+    }
+}
@@ -0,0 +1,52 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.dealsfinder.cashbackservice.dto.CashbackCredit;
+import com.dealsfinder.cashbackservice.entity.CashbackRollup;
+import com.dealsfinder.cashbackservice.entity.CashbackRollupId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CashbackLedgerServiceTest {
+
+    @Test
+    void testFoldByUser_OneDeltaPerUserInEmailOrder() {
+        List<CashbackCredit> credits = List.of(
+                new CashbackCredit("zoe@example.com", 1L, 5.0),
+                new CashbackCredit("amy@example.com", 2L, 2.5),
+                new CashbackCredit("zoe@example.com", 3L, 0.1),
+                new CashbackCredit("zoe@example.com", 4L, 0.2));
+
+        Map<String, BigDecimal> deltas = CashbackLedgerService.foldByUser(credits);
+
+        assertEquals(List.of("amy@example.com", "zoe@example.com"), List.copyOf(deltas.keySet()));
+        assertEquals(new BigDecimal("2.5"), deltas.get("amy@example.com"));
+        assertEquals(new BigDecimal("5.3"), deltas.get("zoe@example.com"));
+    }
+
+    @Test
+    void testFoldRollups_DayAndMonthBucketsPerUserAndDeal() {
+        List<CashbackCredit> credits = List.of(
+                new CashbackCredit("amy@example.com", 7L, 2.5),
+                new CashbackCredit("amy@example.com", 7L, 1.5),
+                new CashbackCredit("zoe@example.com", 7L, 4.0));
+        LocalDate day = LocalDate.of(2024, 3, 18);
+
+        Map<CashbackRollupId, CashbackRollup> rollups = CashbackLedgerService.foldRollups(credits, day);
+
+        assertEquals(6, rollups.size());
+        CashbackRollup amyMonth = rollups.get(new CashbackRollupId(CashbackRollup.Scope.USER, "amy@example.com",
+                CashbackRollup.Granularity.MONTH, LocalDate.of(2024, 3, 1)));
+        assertEquals(4.0, amyMonth.getTotal());
+        assertEquals(2, amyMonth.getEntryCount());
+        CashbackRollup dealDay = rollups.get(new CashbackRollupId(CashbackRollup.Scope.DEAL, "7",
+                CashbackRollup.Granularity.DAY, day));
+        assertEquals(8.0, dealDay.getTotal());
+        assertEquals(3, dealDay.getEntryCount());
+    }
+}
@@ -0,0 +1,46 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.dealsfinder.cashbackservice.entity.CashbackRollup.Granularity;
+import com.dealsfinder.cashbackservice.service.CashbackRollupService.BucketRange;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CashbackRollupServiceTest {
+
+    @Test
+    void testPlan_RangeInsideOneMonthUsesDays() {
+        LocalDate from = LocalDate.of(2024, 1, 15);
+        LocalDate to = LocalDate.of(2024, 1, 20);
+
+        assertEquals(List.of(new BucketRange(Granularity.DAY, from, to)), CashbackRollupService.plan(from, to));
+    }
+
+    @Test
+    void testPlan_WholeMonthsUseMonthBuckets() {
+        List<BucketRange> ranges = CashbackRollupService.plan(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29));
+
+        assertEquals(List.of(new BucketRange(Granularity.MONTH, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1))), ranges);
+    }
+
+    @Test
+    void testPlan_PartialMonthsEitherSideUseDays() {
+        List<BucketRange> ranges = CashbackRollupService.plan(LocalDate.of(2023, 12, 20), LocalDate.of(2024, 3, 10));
+
+        assertEquals(List.of(
+                new BucketRange(Granularity.DAY, LocalDate.of(2023, 12, 20), LocalDate.of(2023, 12, 31)),
+                new BucketRange(Granularity.MONTH, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1)),
+                new BucketRange(Granularity.DAY, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10))), ranges);
+    }
+
+    @Test
+    void testPlan_AdjacentPartialMonthsStayDaily() {
+        LocalDate from = LocalDate.of(2024, 1, 20);
+        LocalDate to = LocalDate.of(2024, 2, 10);
+
+        assertEquals(List.of(new BucketRange(Granularity.DAY, from, to)), CashbackRollupService.plan(from, to));
+    }
+}
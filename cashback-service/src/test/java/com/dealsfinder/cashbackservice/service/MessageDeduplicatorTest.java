@@ -0,0 +1,53 @@
+package com.dealsfinder.cashbackservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageDeduplicatorTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final MessageDeduplicator deduplicator = new MessageDeduplicator(10_000, 100, now::get);
+
+    @Test
+    void testRemembersIdsWithinTheWindow() {
+        deduplicator.markSeen(List.of("m-1"));
+        now.addAndGet(7_000);
+
+        assertTrue(deduplicator.seen("m-1"));
+        assertFalse(deduplicator.seen("m-2"));
+    }
+
+    @Test
+    void testForgetsIdsAfterTwoGenerations() {
+        deduplicator.markSeen(List.of("m-1"));
+        now.addAndGet(5_000);
+        assertTrue(deduplicator.seen("m-1"));
+
+        now.addAndGet(5_000);
+        assertFalse(deduplicator.seen("m-1"));
+    }
+
+    @Test
+    void testLongIdleDropsBothGenerations() {
+        deduplicator.markSeen(List.of("m-1"));
+        now.addAndGet(60_000);
+
+        assertFalse(deduplicator.seen("m-1"));
+    }
+
+    @Test
+    void testFullGenerationRotatesEarly() {
+        for (int i = 0; i < 50; i++) {
+            deduplicator.markSeen(List.of("m-" + i));
+        }
+        deduplicator.markSeen(List.of("late"));
+
+        assertTrue(deduplicator.seen("m-0"));
+        assertTrue(deduplicator.seen("late"));
+    }
+}
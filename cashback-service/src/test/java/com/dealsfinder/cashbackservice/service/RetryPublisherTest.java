@@ -0,0 +1,40 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.dealsfinder.cashbackservice.config.RetryConfig;
+import com.dealsfinder.cashbackservice.dto.CashbackCredit;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RetryPublisherTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final RetryPublisher retryPublisher = new RetryPublisher(rabbitTemplate, new long[]{5000, 60000});
+    private final CashbackCredit credit = new CashbackCredit("user@example.com", 1L, 5.0);
+
+    @Test
+    void testFirstFailureGoesToFirstTier() {
+        retryPublisher.retry(credit, 0, new IllegalStateException("db down"));
+
+        verify(rabbitTemplate).convertAndSend(eq(RetryConfig.tierQueue(5000)), eq(credit), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void testLaterFailureGoesToNextTier() {
+        retryPublisher.retry(credit, 1, new IllegalStateException("db down"));
+
+        verify(rabbitTemplate).convertAndSend(eq(RetryConfig.tierQueue(60000)), eq(credit), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void testExhaustedRetriesAreParked() {
+        retryPublisher.retry(credit, 2, new IllegalStateException("db down"));
+
+        verify(rabbitTemplate).convertAndSend(eq(RetryConfig.PARKING_QUEUE), eq(credit), any(MessagePostProcessor.class));
+    }
+}
@@ -0,0 +1,204 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.dealsfinder.cashbackservice.entity.SummaryRebuildCheckpoint;
+import com.dealsfinder.cashbackservice.entity.SummaryRebuildJob;
+import com.dealsfinder.cashbackservice.repository.SummaryRebuildCheckpointRepository;
+import com.dealsfinder.cashbackservice.repository.SummaryRebuildJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SummaryRebuildServiceTest {
+
+    @Test
+    void testDriftCollector_CorrectsOnlyRealDrift() {
+        List<List<Map.Entry<String, Double>>> written = new ArrayList<>();
+        SummaryDriftCollector collector = new SummaryDriftCollector(10, written::add);
+
+        collector.add("in-sync@example.com", 12.5, 12.5);
+        collector.add("noise@example.com", 0.3, 0.1 + 0.2);
+        collector.add("behind@example.com", 20.0, 15.0);
+        collector.add("no-summary@example.com", 7.0, 0);
+        collector.add("orphan@example.com", 0, 4.0);
+        collector.flush();
+
+        assertEquals(5, collector.getUsersScanned());
+        assertEquals(3, collector.getUsersCorrected());
+        assertEquals(List.of(List.of(Map.entry("behind@example.com", 5.0), Map.entry("no-summary@example.com", 7.0),
+                Map.entry("orphan@example.com", -4.0))), written);
+    }
+
+    @Test
+    void testDriftCollector_WritesFullBatchesAsTheyFill() {
+        List<List<Map.Entry<String, Double>>> written = new ArrayList<>();
+        SummaryDriftCollector collector = new SummaryDriftCollector(2, written::add);
+
+        for (int i = 0; i < 5; i++) {
+            collector.add("user" + i + "@example.com", i + 1, 0);
+        }
+        assertEquals(List.of(2, 2), written.stream().map(List::size).toList());
+
+        collector.flush();
+        collector.flush();
+        assertEquals(List.of(2, 2, 1), written.stream().map(List::size).toList());
+    }
+
+    @Test
+    void testBoundaries_DropFirstTileStart() {
+        assertEquals(List.of("f@x", "p@x"), SummaryRebuildService.boundaries(List.of("a@x", "f@x", "p@x")));
+        assertTrue(SummaryRebuildService.boundaries(List.of("a@x")).isEmpty());
+        assertTrue(SummaryRebuildService.boundaries(List.of()).isEmpty());
+    }
+
+    @Test
+    void testKeyRange_OuterPartitionsAreOpenEnded() {
+        List<String> boundaries = List.of("f@x", "p@x");
+
+        SummaryRebuildService.KeyRange first = SummaryRebuildService.keyRange(boundaries, 0);
+        assertEquals("c.user_email < ?", first.condition("c.user_email"));
+        assertArrayEquals(new Object[]{"f@x"}, first.args());
+
+        SummaryRebuildService.KeyRange middle = SummaryRebuildService.keyRange(boundaries, 1);
+        assertEquals("c.user_email >= ? and c.user_email < ?", middle.condition("c.user_email"));
+        assertArrayEquals(new Object[]{"f@x", "p@x"}, middle.args());
+
+        SummaryRebuildService.KeyRange last = SummaryRebuildService.keyRange(boundaries, 2);
+        assertEquals("c.user_email >= ?", last.condition("c.user_email"));
+        assertArrayEquals(new Object[]{"p@x"}, last.args());
+
+        SummaryRebuildService.KeyRange only = SummaryRebuildService.keyRange(List.of(), 0);
+        assertEquals("1 = 1", only.condition("c.user_email"));
+        assertEquals(0, only.args().length);
+    }
+
+    @Test
+    void testRemainingPartitions_SkipsCheckpointed() {
+        assertEquals(List.of(0, 1, 2, 3), SummaryRebuildService.remainingPartitions(4, Set.of()));
+        assertEquals(List.of(1, 4), SummaryRebuildService.remainingPartitions(5, Set.of(0, 2, 3)));
+        assertTrue(SummaryRebuildService.remainingPartitions(3, Set.of(0, 1, 2)).isEmpty());
+    }
+
+    @Test
+    void testStart_FailedSaveLeavesNothingClaimed() {
+        SummaryRebuildJobRepository jobRepository = mock(SummaryRebuildJobRepository.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenReturn(List.of("a@x", "m@x"));
+        when(jobRepository.save(any(SummaryRebuildJob.class))).thenThrow(new DataAccessResourceFailureException("db down"));
+        SummaryRebuildService service = service(jobRepository, mock(SummaryRebuildCheckpointRepository.class), jdbcTemplate);
+
+        try {
+            assertThrows(DataAccessResourceFailureException.class, service::start);
+            // A stuck claim would turn this into "already running"
+            assertThrows(DataAccessResourceFailureException.class, service::start);
+            verify(jdbcTemplate, never()).update(startsWith("update summary_rebuild_job set status = 'RUNNING'"), any(Object[].class));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testStart_RefusedWhileAJobIsAliveOnAnyInstance() {
+        SummaryRebuildJobRepository jobRepository = mock(SummaryRebuildJobRepository.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(startsWith("select count(*) from summary_rebuild_job"), eq(Integer.class), any(Object[].class)))
+                .thenReturn(1);
+        SummaryRebuildService service = service(jobRepository, mock(SummaryRebuildCheckpointRepository.class), jdbcTemplate);
+
+        try {
+            assertThrows(IllegalStateException.class, service::start);
+            verify(jobRepository, never()).save(any(SummaryRebuildJob.class));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testStart_LosingTheClaimRaceDeletesTheNewJob() {
+        SummaryRebuildJobRepository jobRepository = mock(SummaryRebuildJobRepository.class);
+        SummaryRebuildCheckpointRepository checkpointRepository = mock(SummaryRebuildCheckpointRepository.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenReturn(List.of("a@x", "m@x"));
+        when(jobRepository.save(any(SummaryRebuildJob.class))).thenAnswer(invocation -> {
+            SummaryRebuildJob job = invocation.getArgument(0);
+            job.setId(7L);
+            return job;
+        });
+        // Another instance claimed its own job between our check and our claim
+        when(jdbcTemplate.update(startsWith("update summary_rebuild_job set status = 'RUNNING'"), any(Object[].class))).thenReturn(0);
+        SummaryRebuildService service = service(jobRepository, checkpointRepository, jdbcTemplate);
+
+        try {
+            assertThrows(IllegalStateException.class, service::start);
+            verify(jobRepository).delete(argThat(job -> job.getId() == 7L));
+            verify(checkpointRepository, never()).findByJobId(anyLong());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testResume_RunsOnlyOnceClaimedAndFinishesAsOwner() {
+        SummaryRebuildJobRepository jobRepository = mock(SummaryRebuildJobRepository.class);
+        SummaryRebuildCheckpointRepository checkpointRepository = mock(SummaryRebuildCheckpointRepository.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        SummaryRebuildJob job = SummaryRebuildJob.builder()
+                .id(7L)
+                .partitionCount(1)
+                .status(SummaryRebuildJob.Status.RUNNING)
+                .build();
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(job));
+        when(checkpointRepository.findByJobId(7L)).thenReturn(List.of(SummaryRebuildCheckpoint.builder().jobId(7L).partitionNo(0).build()));
+        SummaryRebuildService service = service(jobRepository, checkpointRepository, jdbcTemplate);
+
+        try {
+            // Still alive on another instance
+            assertThrows(IllegalStateException.class, () -> service.resume(7L));
+            verify(checkpointRepository, never()).findByJobId(anyLong());
+
+            // Its heartbeat went stale, so the claim goes through
+            when(jdbcTemplate.update(startsWith("update summary_rebuild_job set status = 'RUNNING'"), any(Object[].class))).thenReturn(1);
+            service.resume(7L);
+
+            verify(jdbcTemplate, timeout(5000)).update(startsWith("update summary_rebuild_job set status = ?"),
+                    eq("COMPLETED"), any(), isNull(), eq(7L), anyString());
+            verify(jobRepository, never()).save(any(SummaryRebuildJob.class));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static SummaryRebuildService service(SummaryRebuildJobRepository jobRepository,
+                                                 SummaryRebuildCheckpointRepository checkpointRepository,
+                                                 JdbcTemplate jdbcTemplate) {
+        SummaryRebuildService service = new SummaryRebuildService(jobRepository, checkpointRepository, jdbcTemplate,
+                mock(DataSource.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "parallelism", 1);
+        return service;
+    }
+}
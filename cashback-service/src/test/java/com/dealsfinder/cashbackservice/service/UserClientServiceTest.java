@@ -0,0 +1,142 @@
+package com.dealsfinder.cashbackservice.service;
+
+import com.dealsfinder.cashbackservice.config.ServiceTokenInterceptor;
+import com.dealsfinder.cashbackservice.dto.UserDTO;
+import com.dealsfinder.cashbackservice.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UserClientServiceTest {
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final UserClientService client = new UserClientService(restTemplate, 60_000, 5_000, 100, 20, 10,
+            Executors.newSingleThreadExecutor(), now::get);
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneRequest() throws Exception {
+        when(restTemplate.getForEntity(anyString(), eq(UserDTO.class))).thenReturn(ResponseEntity.ok(user("a@example.com", "USER")));
+
+        CompletableFuture<UserDTO> first = client.getUserByEmail("a@example.com");
+        CompletableFuture<UserDTO> second = client.getUserByEmail("a@example.com");
+
+        assertSame(first, second);
+        assertEquals("USER", first.get(1, TimeUnit.SECONDS).getRole());
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(UserDTO.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBurstGoesOutAsOneBatchAndCachesMisses() throws Exception {
+        when(restTemplate.exchange(eq("http://USER-SERVICE/users/lookup"), eq(HttpMethod.POST), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok(List.of(user("a@example.com", "USER"), user("b@example.com", "ADMIN"))));
+
+        Map<String, UserDTO> users = client.getUsersByEmail(List.of("a@example.com", "b@example.com", "ghost@example.com"))
+                .get(1, TimeUnit.SECONDS);
+
+        assertEquals(2, users.size());
+        assertEquals("ADMIN", users.get("b@example.com").getRole());
+        // Found and not-found answers are both served from the cache now
+        assertEquals("USER", client.getUserByEmail("a@example.com").get(1, TimeUnit.SECONDS).getRole());
+        assertNull(client.getUserByEmail("ghost@example.com").get(1, TimeUnit.SECONDS));
+        verify(restTemplate, times(1)).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class));
+        verify(restTemplate, times(0)).getForEntity(anyString(), eq(UserDTO.class));
+    }
+
+    @Test
+    void testMissingUserIsRefetchedAfterNegativeTtl() throws Exception {
+        when(restTemplate.getForEntity(anyString(), eq(UserDTO.class))).thenReturn(ResponseEntity.ok(null));
+
+        assertNull(client.getUserByEmail("ghost@example.com").get(1, TimeUnit.SECONDS));
+        now.addAndGet(5_001);
+        assertNull(client.getUserByEmail("ghost@example.com").get(1, TimeUnit.SECONDS));
+
+        verify(restTemplate, times(2)).getForEntity(anyString(), eq(UserDTO.class));
+    }
+
+    @Test
+    void testFailuresAreNotCached() throws Exception {
+        when(restTemplate.getForEntity(anyString(), eq(UserDTO.class)))
+                .thenThrow(new ResourceAccessException("user-service down"))
+                .thenReturn(ResponseEntity.ok(user("a@example.com", "USER")));
+
+        CompletableFuture<UserDTO> failed = client.getUserByEmail("a@example.com");
+        assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.SECONDS));
+
+        assertEquals("USER", client.getUserByEmail("a@example.com").get(1, TimeUnit.SECONDS).getRole());
+    }
+
+    @Test
+    void testLookupsCarryServiceToken() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", "abcdefghijklmnopqrstuvwxyz012345");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        RestTemplate authenticated = new RestTemplate();
+        authenticated.getInterceptors().add(new ServiceTokenInterceptor(jwtUtil, 60_000L));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(authenticated).build();
+        AtomicReference<String> authorization = new AtomicReference<>();
+        server.expect(requestTo("http://USER-SERVICE/users/email/a@example.com"))
+                .andExpect(request -> authorization.set(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION)))
+                .andRespond(withSuccess("{\"email\":\"a@example.com\",\"role\":\"USER\"}", MediaType.APPLICATION_JSON));
+        UserClientService authenticatedClient = new UserClientService(authenticated, 60_000, 5_000, 100, 20, 10,
+                Executors.newSingleThreadExecutor(), now::get);
+
+        try {
+            assertEquals("USER", authenticatedClient.getUserByEmail("a@example.com").get(1, TimeUnit.SECONDS).getRole());
+        } finally {
+            authenticatedClient.shutdown();
+        }
+
+        server.verify();
+        String token = jwtUtil.extractTokenFromHeader(authorization.get());
+        assertEquals(ServiceTokenInterceptor.SERVICE_NAME, jwtUtil.extractEmail(token));
+        assertEquals(ServiceTokenInterceptor.SERVICE_ROLE, jwtUtil.extractRole(token));
+    }
+
+    private static UserDTO user(String email, String role) {
+        UserDTO user = new UserDTO();
+        user.setEmail(email);
+        user.setRole(role);
+        return user;
+    }
+}
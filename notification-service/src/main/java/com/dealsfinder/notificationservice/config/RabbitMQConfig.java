@@ -45,6 +45,11 @@ import org.springframework.beans.factory.annotation.Value;
 @Configuration
 public class RabbitMQConfig {
 
+    // payment-service publishes one PaymentCompleted event per checkout; the confirmation email is built here
+    public static final String PAYMENT_EXCHANGE = "payment-exchange";
+    public static final String PAYMENT_COMPLETED_KEY = "payment.completed";
+    public static final String PAYMENT_COMPLETED_QUEUE = "notification-payment-completed-queue";
+
     @Value("${app.rabbitmq.queue}")
     private String queueName;
 
@@ -65,8 +70,23 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public Binding binding(Queue queue, TopicExchange exchange) {
-        return BindingBuilder.bind(queue).to(exchange).with(routingKey);
+    public Binding binding() {
+        return BindingBuilder.bind(queue()).to(topicExchange()).with(routingKey);
+    }
+
+    @Bean
+    public TopicExchange paymentExchange() {
+        return new TopicExchange(PAYMENT_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Queue paymentCompletedQueue() {
+        return new Queue(PAYMENT_COMPLETED_QUEUE, true);
+    }
+
+    @Bean
+    public Binding paymentCompletedBinding() {
+        return BindingBuilder.bind(paymentCompletedQueue()).to(paymentExchange()).with(PAYMENT_COMPLETED_KEY);
     }
 
     // ✅ JSON message converter
@@ -85,4 +105,29 @@ public class RabbitMQConfig {
         factory.setMessageConverter(jsonMessageConverter);
         return factory;
     }
+
+    // Hands listeners up to batch-size messages at once (or fewer after receive-timeout-ms of quiet), which
+    // EmailService then sends over a single pooled SMTP connection. Acks are manual so messages held for a
+    // digest stay unacked; prefetch leaves room for those on top of the batch being read.
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            Jackson2JsonMessageConverter jsonMessageConverter,
+            @Value("${notification.consumer.batch-size}") int batchSize,
+            @Value("${notification.consumer.receive-timeout-ms}") long receiveTimeoutMs,
+            @Value("${notification.consumer.min-concurrency}") int minConcurrency,
+            @Value("${notification.digest.prefetch-headroom}") int digestHeadroom) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setPrefetchCount(batchSize + digestHeadroom);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        // ConsumerConcurrencyTuner scales up from here
+        factory.setConcurrentConsumers(minConcurrency);
+        return factory;
+    }
 }
@@ -1,17 +1,62 @@
 package com.dealsfinder.notificationservice.controller;
 
+import com.dealsfinder.notificationservice.service.MailMetrics;
+import com.dealsfinder.notificationservice.service.ParkingLotService;
+import com.dealsfinder.notificationservice.service.TemplateRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
+@RequiredArgsConstructor
 public class NotificationController {
 
+    private final ParkingLotService parkingLotService;
+    private final MailMetrics mailMetrics;
+    private final TemplateRegistry templateRegistry;
+
+    @Value("${notification.replay.batch-size}")
+    private int batchSize;
+
+    @Value("${notification.replay.pause-ms}")
+    private long pauseMs;
+
     @GetMapping("/test")
     public ResponseEntity<String> test() {
         return ResponseEntity.ok("Notification Controller Working!");
     }
-}
 
+    // Emails that used up every retry tier wait in the parking queue until an admin replays them
+    @GetMapping("/admin/parking")
+    public Map<String, Long> getParked() {
+        return Map.of("parked", parkingLotService.parkedCount());
+    }
+
+    @PostMapping("/admin/parking/replay")
+    public ResponseEntity<?> replay(@RequestParam(defaultValue = "1000") int max) throws InterruptedException {
+        if (max < 1) {
+            return ResponseEntity.badRequest().body("max must be positive.");
+        }
+        return ResponseEntity.ok(Map.of("replayed", parkingLotService.replay(max, batchSize, pauseMs)));
+    }
+
+    // Throughput and how well the pooled SMTP connections are being reused (see SmtpTransportPool)
+    @GetMapping("/admin/mail-stats")
+    public Map<String, Object> getMailStats() {
+        return mailMetrics.snapshot();
+    }
+
+    // Re-reads notification.templates.location; a broken file leaves the current templates in place
+    @PostMapping("/admin/templates/reload")
+    public ResponseEntity<?> reloadTemplates() {
+        try {
+            return ResponseEntity.ok(Map.of("templates", templateRegistry.reload()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,7 +14,25 @@ public class NotificationMessage {
 //    private String message;
 //    private String type; // e.g., EMAIL, SMS, PUSH
 //}
+    // Types come from producers or templates; see notification.digest.urgent-types for which ones skip the digest
+    public static final String DIGEST = "DIGEST";
+
 private String recipient;  // user's email
     private String subject;    // email subject
     private String message;    // email body
+    private String type;       // e.g. PAYMENT_CONFIRMATION, CASHBACK; null from older producers
+    private String templateId; // set instead of subject/message; rendered by TemplateRegistry
+    private Map<String, String> params;
+
+    public NotificationMessage(String recipient, String subject, String message) {
+        this(recipient, subject, message, null);
+    }
+
+    public NotificationMessage(String recipient, String subject, String message, String type) {
+        this(recipient, subject, message, type, null, null);
+    }
+
+    public static NotificationMessage fromTemplate(String recipient, String templateId, Map<String, String> params) {
+        return new NotificationMessage(recipient, null, null, null, templateId, params);
+    }
 }
@@ -0,0 +1,23 @@
+package com.dealsfinder.notificationservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Published by payment-service to payment-exchange (routing key payment.completed)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCompletedEvent {
+    private String transactionId;
+    private String userEmail;
+    private long dealId;
+    private long amountMinor;
+    private String currency;
+    private BigDecimal amount;
+    private String paymentMethod;
+    private LocalDateTime completedAt;
+}
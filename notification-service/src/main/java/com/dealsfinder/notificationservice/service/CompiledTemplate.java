@@ -0,0 +1,67 @@
+package com.dealsfinder.notificationservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// A template split once into literal text and {{param}} slots. Rendering walks the two arrays and appends
+// into one StringBuilder sized up front, so a render allocates the builder and the resulting String only.
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    // Headroom per slot when sizing the builder, so typical values fit without it growing
+    private static final int EXPECTED_PARAM_LENGTH = 16;
+
+    // literals has one more entry than params: literals[0] params[0] literals[1] ... literals[n]
+    private final String[] literals;
+    private final String[] params;
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, String[] params) {
+        this.literals = literals;
+        this.params = params;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> params = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, from)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed " + OPEN + " at index " + open + " in template: " + source);
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty parameter name at index " + open + " in template: " + source);
+            }
+            literals.add(source.substring(from, open));
+            params.add(name);
+            from = close + CLOSE.length();
+        }
+        literals.add(source.substring(from));
+        return new CompiledTemplate(literals.toArray(String[]::new), params.toArray(String[]::new));
+    }
+
+    public String render(Map<String, String> values) {
+        if (params.length == 0) {
+            return literals[0];
+        }
+        StringBuilder out = new StringBuilder(literalLength + params.length * EXPECTED_PARAM_LENGTH);
+        for (int i = 0; i < params.length; i++) {
+            String value = values != null ? values.get(params[i]) : null;
+            if (value == null) {
+                throw new IllegalArgumentException("Missing template parameter: " + params[i]);
+            }
+            out.append(literals[i]).append(value);
+        }
+        return out.append(literals[params.length]).toString();
+    }
+}
@@ -0,0 +1,109 @@
+package com.dealsfinder.notificationservice.service;
+
+import com.dealsfinder.notificationservice.config.RabbitMQConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Resizes the batch email consumers every tune-interval-ms. A consumer is added while the queue holds more
+// than the current consumers can take in one batch each, and removed when the queue is empty. Consumers are
+// also shed when sends slow down or the provider throttles us. Adding one is pointless once the provider's
+// rate is covered: at the observed send latency, rate x latency consumers already keep its bucket busy. The
+// SMTP pool size is a further cap.
+@Slf4j
+@Service
+public class ConsumerConcurrencyTuner {
+
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+    private final RabbitTemplate rabbitTemplate;
+    private final MailMetrics mailMetrics;
+    private final ProviderRateLimiter rateLimiter;
+    private final Map<String, String> queuesByListener;
+    private final Map<String, Integer> consumers = new ConcurrentHashMap<>();
+    private long lastThrottledCount;
+
+    @Value("${spring.mail.host}")
+    private String provider;
+
+    @Value("${notification.consumer.min-concurrency}")
+    private int minConsumers;
+
+    @Value("${notification.consumer.max-concurrency}")
+    private int maxConsumers;
+
+    @Value("${notification.consumer.batch-size}")
+    private int batchSize;
+
+    @Value("${notification.consumer.latency-target-ms}")
+    private double latencyTargetMs;
+
+    @Value("${notification.mail.pool-size}")
+    private int poolSize;
+
+    @Value("${notification.digest.prefetch-headroom}")
+    private int digestHeadroom;
+
+    public ConsumerConcurrencyTuner(RabbitListenerEndpointRegistry listenerRegistry,
+                                    RabbitTemplate rabbitTemplate,
+                                    MailMetrics mailMetrics,
+                                    ProviderRateLimiter rateLimiter,
+                                    @Value("${app.rabbitmq.queue}") String notificationQueue) {
+        this.listenerRegistry = listenerRegistry;
+        this.rabbitTemplate = rabbitTemplate;
+        this.mailMetrics = mailMetrics;
+        this.rateLimiter = rateLimiter;
+        this.queuesByListener = Map.of(
+                NotificationListener.NOTIFICATIONS_LISTENER, notificationQueue,
+                NotificationListener.PAYMENT_COMPLETED_LISTENER, RabbitMQConfig.PAYMENT_COMPLETED_QUEUE);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.consumer.tune-interval-ms}")
+    public void tune() {
+        long throttledCount = mailMetrics.throttledCount();
+        boolean throttled = throttledCount > lastThrottledCount;
+        lastThrottledCount = throttledCount;
+        double latencyMs = mailMetrics.sendLatencyMs();
+        boolean slow = latencyMs > latencyTargetMs;
+
+        queuesByListener.forEach((listenerId, queue) -> {
+            if (!(listenerRegistry.getListenerContainer(listenerId) instanceof SimpleMessageListenerContainer container)
+                    || !container.isRunning()) {
+                return;
+            }
+            long depth = rabbitTemplate.execute(channel -> channel.messageCount(queue));
+            int current = consumers.getOrDefault(listenerId, minConsumers);
+            int target = nextConsumerCount(current, depth, throttled || slow, latencyMs);
+            if (target != current) {
+                log.info("⚖️ {} consumers: {} -> {} (queue depth {}, send latency {} ms{})", listenerId, current, target,
+                        depth, Math.round(latencyMs), throttled ? ", throttled" : "");
+                // Larger prefetch while draining a backlog keeps the next batch ready; it applies to consumers as
+                // they start. Messages held unacked in digests need room on top (see RabbitMQConfig).
+                container.setPrefetchCount((depth > (long) target * batchSize ? batchSize * 2 : batchSize) + digestHeadroom);
+                container.setConcurrentConsumers(target);
+                consumers.put(listenerId, target);
+            }
+        });
+    }
+
+    int nextConsumerCount(int current, long depth, boolean backOff, double latencyMs) {
+        int ceiling = Math.min(maxConsumers, poolSize);
+        if (latencyMs > 0) {
+            int useful = (int) Math.ceil(rateLimiter.ratePerSecond(provider) * latencyMs / 1000.0);
+            ceiling = Math.min(ceiling, Math.max(useful, minConsumers));
+        }
+        int target = current;
+        if (backOff || depth == 0) {
+            target = current - 1;
+        } else if (depth > (long) current * batchSize) {
+            target = current + 1;
+        }
+        return Math.max(minConsumers, Math.min(target, ceiling));
+    }
+}
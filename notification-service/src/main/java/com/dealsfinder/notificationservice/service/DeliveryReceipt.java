@@ -0,0 +1,33 @@
+package com.dealsfinder.notificationservice.service;
+
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+
+// A message consumed with manual ack, settled once its email has been sent or handed to the retry tiers.
+// Until then the broker keeps it, and puts it back for redelivery if this consumer's channel closes.
+@Slf4j
+public record DeliveryReceipt(Channel channel, long deliveryTag) {
+
+    // The channel is gone, so the broker has already requeued the message and will deliver it again
+    public boolean isReleased() {
+        return !channel.isOpen();
+    }
+
+    public void ack() {
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ Could not ack delivery {}; the broker will redeliver it: {}", deliveryTag, e.getMessage());
+        }
+    }
+
+    public void requeue() {
+        try {
+            channel.basicNack(deliveryTag, false, true);
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ Could not requeue delivery {}; the broker will redeliver it: {}", deliveryTag, e.getMessage());
+        }
+    }
+}
@@ -1,28 +1,57 @@
 package com.dealsfinder.notificationservice.service;
 
+import com.dealsfinder.notificationservice.model.NotificationMessage;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender javaMailSender;
+    private final SmtpTransportPool transportPool;
+    private final MailMetrics mailMetrics;
+
+    public record Failure(NotificationMessage message, Exception cause) {}
 
-    public void sendEmail(String to, String subject, String body) {
+    // Sends the whole batch over one pooled connection and returns the messages that could not be sent
+    public List<Failure> sendBatch(List<NotificationMessage> messages) {
+        List<Failure> failures = new ArrayList<>();
+        SmtpTransportPool.Lease lease;
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            javaMailSender.send(message);
-            log.info("📧 Email sent successfully to: {}", to);
-        } catch (Exception e) {
-            log.error("❌ Failed to send email to: {}", to, e);
+            lease = transportPool.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            messages.forEach(message -> failures.add(new Failure(message, e)));
+            return failures;
+        }
+        try (lease) {
+            for (NotificationMessage message : messages) {
+                try {
+                    lease.send(toMimeMessage(lease, message));
+                    log.info("📧 Email sent successfully to: {}", message.getRecipient());
+                } catch (MessagingException | RuntimeException e) {
+                    mailMetrics.recordFailed();
+                    failures.add(new Failure(message, e));
+                }
+            }
         }
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(SmtpTransportPool.Lease lease, NotificationMessage message) throws MessagingException {
+        MimeMessage mimeMessage = lease.createMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "UTF-8");
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getMessage());
+        return mimeMessage;
     }
 }
@@ -0,0 +1,108 @@
+package com.dealsfinder.notificationservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Counters behind /api/notifications/admin/mail-stats. The send rate is averaged over the last
+// minute from per-second buckets, so reading it has no side effects.
+@Component
+public class MailMetrics {
+
+    private static final int WINDOW_SECONDS = 60;
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    // Exponentially weighted moving average of one send's duration, as the bits of a double
+    private final AtomicLong sendLatencyMsBits = new AtomicLong(Double.doubleToLongBits(0.0));
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(WINDOW_SECONDS);
+    private final AtomicLongArray bucketSeconds = new AtomicLongArray(WINDOW_SECONDS);
+    private final LongSupplier clock;
+
+    public MailMetrics() {
+        this(System::currentTimeMillis);
+    }
+
+    MailMetrics(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public void recordSent(long latencyNanos) {
+        sent.incrementAndGet();
+        double latencyMs = latencyNanos / 1_000_000.0;
+        sendLatencyMsBits.getAndUpdate(bits -> {
+            double average = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(average == 0.0 ? latencyMs : average + LATENCY_WEIGHT * (latencyMs - average));
+        });
+        long second = clock.getAsLong() / 1000;
+        int slot = (int) (second % WINDOW_SECONDS);
+        long slotSecond = bucketSeconds.get(slot);
+        if (slotSecond != second && bucketSeconds.compareAndSet(slot, slotSecond, second)) {
+            // First send in this second: the slot still holds a count from a minute (or more) ago
+            bucketCounts.set(slot, 0);
+        }
+        bucketCounts.incrementAndGet(slot);
+    }
+
+    public void recordFailed() {
+        failed.incrementAndGet();
+    }
+
+    public void recordConnectionOpened() {
+        connectionsOpened.incrementAndGet();
+    }
+
+    public void recordReconnect() {
+        reconnects.incrementAndGet();
+    }
+
+    public void recordThrottled() {
+        throttled.incrementAndGet();
+    }
+
+    public long throttledCount() {
+        return throttled.get();
+    }
+
+    public double sendLatencyMs() {
+        return Double.longBitsToDouble(sendLatencyMsBits.get());
+    }
+
+    public double sendsPerSecond() {
+        long now = clock.getAsLong() / 1000;
+        long total = 0;
+        // The current second is still filling up, so average over the previous full minute
+        for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+            long second = bucketSeconds.get(slot);
+            if (second < now && now - second <= WINDOW_SECONDS) {
+                total += bucketCounts.get(slot);
+            }
+        }
+        return (double) total / WINDOW_SECONDS;
+    }
+
+    public Map<String, Object> snapshot() {
+        long sentTotal = sent.get();
+        long opened = connectionsOpened.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sent", sentTotal);
+        stats.put("failed", failed.get());
+        stats.put("sendsPerSecond", sendsPerSecond());
+        stats.put("connectionsOpened", opened);
+        stats.put("reconnects", reconnects.get());
+        stats.put("throttled", throttled.get());
+        stats.put("sendLatencyMs", sendLatencyMs());
+        stats.put("messagesPerConnection", opened == 0 ? 0.0 : (double) sentTotal / opened);
+        // Share of sends that went over an already-open connection
+        stats.put("connectionReuseRatio", sentTotal == 0 ? 0.0 : Math.max(0.0, 1.0 - (double) opened / sentTotal));
+        return stats;
+    }
+}
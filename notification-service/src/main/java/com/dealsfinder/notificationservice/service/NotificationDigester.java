@@ -0,0 +1,138 @@
+package com.dealsfinder.notificationservice.service;
+
+import com.dealsfinder.notificationservice.model.NotificationMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Holds non-urgent notifications per recipient for window-ms from the first one, then merges them into a
+// single digest email. A checkout's payment confirmation and cashback email arrive seconds apart, so they
+// usually go out as one. Urgent types skip the buffer, and a buffer that reaches max-messages goes out
+// early. Buffered messages are not acked yet (see DeliveryReceipt): after a crash or restart the broker
+// redelivers them, and a message whose channel has closed is left out of its digest for the same reason.
+@Service
+public class NotificationDigester {
+
+    static final String DIGEST_SUBJECT = "Your DealsFinder updates";
+    static final String SEPARATOR = "\n\n————————————\n\n";
+
+    // An email to send and the deliveries it settles; a retried email has none
+    public record Delivery(NotificationMessage message, List<DeliveryReceipt> receipts) {
+
+        boolean isReleased() {
+            return receipts.stream().anyMatch(DeliveryReceipt::isReleased);
+        }
+    }
+
+    private static final class Pending {
+        private final long dueAt;
+        private final List<Delivery> deliveries = new ArrayList<>();
+
+        private Pending(long dueAt) {
+            this.dueAt = dueAt;
+        }
+    }
+
+    private final long windowMs;
+    private final int maxMessages;
+    private final Set<String> urgentTypes;
+    private final LongSupplier clock;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NotificationDigester(@Value("${notification.digest.window-ms}") long windowMs,
+                                @Value("${notification.digest.max-messages}") int maxMessages,
+                                @Value("${notification.digest.urgent-types}") Set<String> urgentTypes) {
+        this(windowMs, maxMessages, urgentTypes, System::currentTimeMillis);
+    }
+
+    NotificationDigester(long windowMs, int maxMessages, Set<String> urgentTypes, LongSupplier clock) {
+        this.windowMs = windowMs;
+        this.maxMessages = maxMessages;
+        this.urgentTypes = urgentTypes;
+        this.clock = clock;
+    }
+
+    // Buffers what can wait and returns what must be sent now: urgent messages and digests that filled up
+    public List<Delivery> offer(List<Delivery> deliveries) {
+        List<Delivery> sendNow = new ArrayList<>();
+        long now = clock.getAsLong();
+        for (Delivery delivery : deliveries) {
+            NotificationMessage message = delivery.message();
+            if (windowMs <= 0 || message.getType() != null && urgentTypes.contains(message.getType())) {
+                sendNow.add(delivery);
+                continue;
+            }
+            pending.compute(recipientKey(message), (key, buffered) -> {
+                Pending target = buffered != null ? buffered : new Pending(now + windowMs);
+                target.deliveries.add(delivery);
+                if (target.deliveries.size() < maxMessages) {
+                    return target;
+                }
+                addComposed(sendNow, target.deliveries);
+                return null;
+            });
+        }
+        return sendNow;
+    }
+
+    // Digests whose window has closed
+    public List<Delivery> drainDue() {
+        long now = clock.getAsLong();
+        List<Delivery> due = new ArrayList<>();
+        for (Iterator<Map.Entry<String, Pending>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Pending> entry = it.next();
+            if (entry.getValue().dueAt <= now && pending.remove(entry.getKey(), entry.getValue())) {
+                // Removed under the map's lock for this key, so offer() can no longer add to it
+                addComposed(due, entry.getValue().deliveries);
+            }
+        }
+        return due;
+    }
+
+    public int pendingRecipients() {
+        return pending.size();
+    }
+
+    private static void addComposed(List<Delivery> target, List<Delivery> buffered) {
+        List<Delivery> live = buffered.stream().filter(delivery -> !delivery.isReleased()).toList();
+        if (live.isEmpty()) {
+            return;
+        }
+        if (live.size() == 1) {
+            target.add(live.get(0));
+            return;
+        }
+        target.add(new Delivery(compose(live.stream().map(Delivery::message).toList()),
+                live.stream().flatMap(delivery -> delivery.receipts().stream()).toList()));
+    }
+
+    // A lone message goes out unchanged; several become one email with a section per message
+    static NotificationMessage compose(List<NotificationMessage> messages) {
+        if (messages.size() == 1) {
+            return messages.get(0);
+        }
+        StringBuilder body = new StringBuilder();
+        for (NotificationMessage message : messages) {
+            if (!body.isEmpty()) {
+                body.append(SEPARATOR);
+            }
+            body.append(message.getSubject()).append("\n\n").append(message.getMessage());
+        }
+        return new NotificationMessage(messages.get(0).getRecipient(),
+                DIGEST_SUBJECT + " (" + messages.size() + ")", body.toString(), NotificationMessage.DIGEST);
+    }
+
+    private static String recipientKey(NotificationMessage message) {
+        return message.getRecipient().trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -50,34 +50,155 @@
 //}
 package com.dealsfinder.notificationservice.service;
 
+import com.dealsfinder.notificationservice.config.RabbitMQConfig;
+import com.dealsfinder.notificationservice.config.RetryConfig;
 import com.dealsfinder.notificationservice.model.NotificationMessage;
+import com.dealsfinder.notificationservice.model.PaymentCompletedEvent;
+import com.dealsfinder.notificationservice.service.NotificationDigester.Delivery;
+import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationListener {
 
+    // Container ids, so ConsumerConcurrencyTuner can find the batch consumers
+    public static final String NOTIFICATIONS_LISTENER = "notifications";
+    public static final String PAYMENT_COMPLETED_LISTENER = "payment-completed-notifications";
+
+    static final String PAYMENT_CONFIRMATION_TEMPLATE = "payment-confirmation";
+
     private final EmailService emailService;
+    private final RetryPublisher retryPublisher;
+    private final NotificationDigester notificationDigester;
+    private final TemplateRegistry templateRegistry;
 
-    @RabbitListener(queues = "${app.rabbitmq.queue}")
-    public void handleNotification(NotificationMessage message) {
-        try {
-            log.info("📩 Received Notification: {}", message);
+    // The batch listeners ack manually: each message is acked once its email (or digest) has been sent, so
+    // messages held for a digest are still the broker's if this instance dies
+    @RabbitListener(id = NOTIFICATIONS_LISTENER, queues = "${app.rabbitmq.queue}", containerFactory = "batchRabbitListenerContainerFactory")
+    public void handleNotifications(List<Message<NotificationMessage>> messages, Channel channel) {
+        log.info("📩 Received {} notification(s)", messages.size());
+        List<Delivery> deliveries = messages.stream()
+                .map(message -> new Delivery(message.getPayload(), List.of(receipt(message, channel))))
+                .toList();
+        send(notificationDigester.offer(render(deliveries)), 0);
+    }
 
-            emailService.sendEmail(
-                    message.getRecipient(),
-                    message.getSubject(),
-                    message.getMessage()
-            );
-            log.info("✅ Email sent to {}", message.getRecipient());
+    @RabbitListener(id = PAYMENT_COMPLETED_LISTENER, queues = RabbitMQConfig.PAYMENT_COMPLETED_QUEUE, containerFactory = "batchRabbitListenerContainerFactory")
+    public void handlePaymentCompleted(List<Message<PaymentCompletedEvent>> events, Channel channel) {
+        log.info("📩 Received {} payment completed event(s)", events.size());
 
-        } catch (Exception e) {
-            log.error("❌ Failed to process notification message", e);
+        List<Delivery> deliveries = new ArrayList<>();
+        for (Message<PaymentCompletedEvent> message : events) {
+            PaymentCompletedEvent event = message.getPayload();
+            DeliveryReceipt receipt = receipt(message, channel);
+            try {
+                String symbol = "INR".equals(event.getCurrency()) ? "₹" : event.getCurrency() + " ";
+                deliveries.add(new Delivery(NotificationMessage.fromTemplate(event.getUserEmail(), PAYMENT_CONFIRMATION_TEMPLATE,
+                        Map.of("amount", symbol + event.getAmount().toPlainString())), List.of(receipt)));
+            } catch (Exception e) {
+                // A malformed event will not get better with retries
+                log.error("❌ Failed to process payment completed event {}", event, e);
+                receipt.ack();
+            }
         }
+        send(notificationDigester.offer(render(deliveries)), 0);
     }
-}
 
+    // Emails whose previous attempt failed, back from a retry tier's TTL queue (see RetryConfig)
+    @RabbitListener(queues = RetryConfig.RETRY_QUEUE)
+    public void handleRetry(NotificationMessage message,
+                            @Header(name = RetryConfig.ATTEMPT_HEADER, defaultValue = "0") int attempt) {
+        log.info("🔁 Retrying notification (attempt {}): {}", attempt, message);
+        // Replayed from parking, a message may still be waiting for its template. This listener auto-acks.
+        send(render(List.of(new Delivery(message, List.of()))), attempt);
+    }
+
+    // Turns template-id messages into full text. A missing template or parameter will not fix itself on retry,
+    // so those are parked straight away, where a replay picks them up once the template is in place
+    private List<Delivery> render(List<Delivery> deliveries) {
+        List<Delivery> rendered = new ArrayList<>(deliveries.size());
+        for (Delivery delivery : deliveries) {
+            NotificationMessage message = delivery.message();
+            try {
+                rendered.add(new Delivery(templateRegistry.render(message), delivery.receipts()));
+            } catch (IllegalArgumentException e) {
+                log.error("❌ Cannot render notification for {}: {}", message.getRecipient(), e.getMessage());
+                retryPublisher.park(message, e);
+                delivery.receipts().forEach(DeliveryReceipt::ack);
+            }
+        }
+        return rendered;
+    }
+
+    // Digests whose window has closed (see NotificationDigester). Digests still open at shutdown are not
+    // sent: their messages were never acked, so the broker hands them out again after the restart
+    @Scheduled(fixedDelayString = "${notification.digest.flush-interval-ms}")
+    public void flushDigests() {
+        send(notificationDigester.drainDue(), 0);
+    }
+
+    // The batch shares one pooled SMTP connection. Failed sends are handed to the delayed retry tiers instead
+    // of being retried here, so an SMTP outage does not hold up the rest of the queue. Either way the
+    // deliveries are done with; only an email whose hand-off also fails goes back to the queue, never one
+    // that was already sent
+    private void send(List<Delivery> deliveries, int attempt) {
+        if (deliveries.isEmpty()) {
+            return;
+        }
+        List<NotificationMessage> messages = deliveries.stream().map(Delivery::message).toList();
+        List<EmailService.Failure> failures;
+        try {
+            failures = emailService.sendBatch(messages);
+        } catch (RuntimeException e) {
+            // Nothing is known to have gone out
+            deliveries.forEach(delivery -> delivery.receipts().forEach(DeliveryReceipt::requeue));
+            throw e;
+        }
+        log.info("✅ Sent {} of {} email(s)", messages.size() - failures.size(), messages.size());
+
+        // By identity: two deliveries may carry equal messages
+        Map<NotificationMessage, Exception> failed = new IdentityHashMap<>();
+        failures.forEach(failure -> failed.put(failure.message(), failure.cause()));
+        RuntimeException handOffFailure = null;
+        for (Delivery delivery : deliveries) {
+            Exception cause = failed.get(delivery.message());
+            if (cause != null) {
+                log.error("❌ Failed to send email to {}", delivery.message().getRecipient(), cause);
+                try {
+                    retryPublisher.retry(delivery.message(), attempt, cause);
+                } catch (RuntimeException e) {
+                    delivery.receipts().forEach(DeliveryReceipt::requeue);
+                    if (handOffFailure == null) {
+                        handOffFailure = e;
+                    } else {
+                        handOffFailure.addSuppressed(e);
+                    }
+                    continue;
+                }
+            }
+            delivery.receipts().forEach(DeliveryReceipt::ack);
+        }
+        // Lets the auto-acked retry listener put its message back too
+        if (handOffFailure != null) {
+            throw handOffFailure;
+        }
+    }
+
+    private static DeliveryReceipt receipt(Message<?> message, Channel channel) {
+        return new DeliveryReceipt(channel, message.getHeaders().get(AmqpHeaders.DELIVERY_TAG, Long.class));
+    }
+}
@@ -0,0 +1,133 @@
+package com.dealsfinder.notificationservice.service;
+
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// One token bucket per outbound mail provider (SMTP host), so sends stay under the provider's per-second
+// limit however many consumers are draining. When the provider answers with a throttling reply anyway,
+// its bucket is paused for throttle-pause-ms before sends resume.
+@Slf4j
+@Service
+public class ProviderRateLimiter {
+
+    private final Map<String, Double> providerRates = new HashMap<>();
+    private final double defaultRate;
+    private final double burstSeconds;
+    private final long throttlePauseNanos;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    // provider-rates is a comma-separated list of host=sends-per-second overrides
+    public ProviderRateLimiter(@Value("${notification.mail.default-rate-per-second}") double defaultRate,
+                               @Value("${notification.mail.provider-rates:}") String providerRates,
+                               @Value("${notification.mail.burst-seconds}") double burstSeconds,
+                               @Value("${notification.mail.throttle-pause-ms}") long throttlePauseMs) {
+        this.defaultRate = defaultRate;
+        this.burstSeconds = burstSeconds;
+        this.throttlePauseNanos = TimeUnit.MILLISECONDS.toNanos(throttlePauseMs);
+        for (String entry : providerRates.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected host=rate in notification.mail.provider-rates, got: " + entry);
+            }
+            this.providerRates.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+    }
+
+    public double ratePerSecond(String provider) {
+        return providerRates.getOrDefault(provider, defaultRate);
+    }
+
+    // Blocks until the provider's bucket has a token. parkNanos may return early, so park until the deadline.
+    public void acquire(String provider) throws InterruptedException {
+        long now = System.nanoTime();
+        long deadline = now + bucket(provider).reserve(now);
+        for (long waitNanos = deadline - now; waitNanos > 0; waitNanos = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(waitNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    public void throttled(String provider) {
+        log.warn("🐢 {} is throttling us, pausing sends for {} ms", provider, TimeUnit.NANOSECONDS.toMillis(throttlePauseNanos));
+        bucket(provider).pause(System.nanoTime(), throttlePauseNanos);
+    }
+
+    // 421 (service unavailable, often "try again later") and enhanced 4.7.x codes are how SMTP providers
+    // signal rate limiting; JavaMail puts the server's reply line in the exception message
+    public static boolean isThrottling(MessagingException e) {
+        for (Exception cause = e; cause != null; cause = cause instanceof MessagingException m ? m.getNextException() : null) {
+            String message = cause.getMessage();
+            if (message != null && (message.startsWith("421") || message.matches("^\\d{3} 4\\.7\\.\\d+.*"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TokenBucket bucket(String provider) {
+        return buckets.computeIfAbsent(provider, key -> {
+            double rate = ratePerSecond(key);
+            return new TokenBucket(rate, Math.max(1.0, rate * burstSeconds));
+        });
+    }
+
+    // Tokens may go negative: each caller reserves its slot and waits its turn, so callers are served in order
+    static final class TokenBucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private boolean started;
+        private long refilledAt;
+        private long pausedUntil;
+
+        TokenBucket(double ratePerSecond, double capacity) {
+            this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        // Takes a token and returns how long the caller must wait before using it
+        synchronized long reserve(long now) {
+            start(now);
+            // Nothing accrues while paused
+            long refillFrom = Math.max(refilledAt, pausedUntil);
+            if (now - refillFrom > 0) {
+                tokens = Math.min(capacity, tokens + (now - refillFrom) * tokensPerNano);
+                refilledAt = now;
+            }
+            tokens -= 1;
+            long pauseLeft = Math.max(0, pausedUntil - now);
+            return pauseLeft + (tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano));
+        }
+
+        synchronized void pause(long now, long pauseNanos) {
+            start(now);
+            pausedUntil = Math.max(pausedUntil, now + pauseNanos);
+            // Resume gently rather than with a full burst
+            tokens = Math.min(tokens, 0);
+            refilledAt = now;
+        }
+
+        private void start(long now) {
+            if (!started) {
+                started = true;
+                refilledAt = now;
+                pausedUntil = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.dealsfinder.notificationservice.service;
+
+import com.dealsfinder.notificationservice.config.RetryConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import static com.dealsfinder.notificationservice.config.RetryConfig.ATTEMPT_HEADER;
+import static com.dealsfinder.notificationservice.config.RetryConfig.ERROR_HEADER;
+
+@Slf4j
+@Service
+public class RetryPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final long[] delaysMs;
+
+    public RetryPublisher(RabbitTemplate rabbitTemplate, @Value("${notification.retry.delays-ms}") long[] delaysMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.delaysMs = delaysMs;
+    }
+
+    // attempt is how many retries the payload has already had; 0 on its first failure
+    public void retry(Object payload, int attempt, Exception cause) {
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        if (attempt < delaysMs.length) {
+            send(RetryConfig.tierQueue(delaysMs[attempt]), payload, attempt + 1, error);
+            log.warn("🔁 Retry {} of {} scheduled in {} ms for {}", attempt + 1, delaysMs.length, delaysMs[attempt], payload);
+        } else {
+            send(RetryConfig.PARKING_QUEUE, payload, attempt, error);
+            log.error("🅿️ Parked after {} retries: {}", attempt, payload);
+        }
+    }
+
+    // For messages no retry can fix until someone intervenes; an admin replay sends them through again
+    public void park(Object payload, Exception cause) {
+        retry(payload, delaysMs.length, cause);
+    }
+
+    private void send(String queue, Object payload, int attempt, String error) {
+        rabbitTemplate.convertAndSend(queue, payload, message -> {
+            message.getMessageProperties().setHeader(ATTEMPT_HEADER, attempt);
+            message.getMessageProperties().setHeader(ERROR_HEADER, error);
+            return message;
+        });
+    }
+}
@@ -0,0 +1,154 @@
+package com.dealsfinder.notificationservice.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.LongSupplier;
+
+// A fixed set of SMTP connections shared by all senders. JavaMailSender opens a connection (TCP, STARTTLS,
+// AUTH) for every send; here a connection is kept open and reused until it has carried max-messages, sat
+// idle longer than the server is likely to keep it, or failed.
+// Every send attempt, including the resend after a reconnect, first takes a token from the provider's bucket
+// in ProviderRateLimiter.
+@Slf4j
+@Service
+public class SmtpTransportPool {
+
+    private final JavaMailSenderImpl mailSender;
+    private final MailMetrics mailMetrics;
+    private final ProviderRateLimiter rateLimiter;
+    private final int maxMessagesPerConnection;
+    private final long maxIdleMs;
+    private final LongSupplier clock;
+    private final BlockingQueue<Lease> leases;
+
+    @Autowired
+    public SmtpTransportPool(JavaMailSenderImpl mailSender,
+                             MailMetrics mailMetrics,
+                             ProviderRateLimiter rateLimiter,
+                             @Value("${notification.mail.pool-size}") int poolSize,
+                             @Value("${notification.mail.max-messages-per-connection}") int maxMessagesPerConnection,
+                             @Value("${notification.mail.max-idle-ms}") long maxIdleMs) {
+        this(mailSender, mailMetrics, rateLimiter, poolSize, maxMessagesPerConnection, maxIdleMs, System::currentTimeMillis);
+    }
+
+    SmtpTransportPool(JavaMailSenderImpl mailSender, MailMetrics mailMetrics, ProviderRateLimiter rateLimiter, int poolSize,
+                      int maxMessagesPerConnection, long maxIdleMs, LongSupplier clock) {
+        this.mailSender = mailSender;
+        this.mailMetrics = mailMetrics;
+        this.rateLimiter = rateLimiter;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleMs = maxIdleMs;
+        this.clock = clock;
+        this.leases = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            leases.add(new Lease());
+        }
+    }
+
+    // Blocks until a connection slot is free; close the lease to hand it back
+    public Lease acquire() throws InterruptedException {
+        return leases.take();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        leases.forEach(Lease::disconnect);
+    }
+
+    public final class Lease implements AutoCloseable {
+
+        private Transport transport;
+        private int sentOnConnection;
+        private long lastUsedAt;
+
+        public MimeMessage createMessage() {
+            return mailSender.createMimeMessage();
+        }
+
+        public void send(MimeMessage message) throws MessagingException {
+            if (message.getMessageID() == null) {
+                message.saveChanges();
+            }
+            String provider = mailSender.getHost();
+            awaitSendSlot(provider);
+            long startedAt = System.nanoTime();
+            try {
+                connectIfNeeded().sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException e) {
+                if (ProviderRateLimiter.isThrottling(e)) {
+                    mailMetrics.recordThrottled();
+                    rateLimiter.throttled(provider);
+                    disconnect();
+                    throw e;
+                }
+                if (e instanceof SendFailedException) {
+                    // Rejected recipients; the connection itself is fine
+                    throw e;
+                }
+                // Most likely the server dropped the connection: reconnect once, then give up on this message
+                log.warn("🔌 SMTP connection failed ({}), reconnecting", e.getMessage());
+                mailMetrics.recordReconnect();
+                disconnect();
+                awaitSendSlot(provider);
+                connectIfNeeded().sendMessage(message, message.getAllRecipients());
+            }
+            mailMetrics.recordSent(System.nanoTime() - startedAt);
+            lastUsedAt = clock.getAsLong();
+            if (++sentOnConnection >= maxMessagesPerConnection) {
+                disconnect();
+            }
+        }
+
+        private void awaitSendSlot(String provider) throws MessagingException {
+            try {
+                rateLimiter.acquire(provider);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MessagingException("Interrupted while waiting for a send slot", e);
+            }
+        }
+
+        private Transport connectIfNeeded() throws MessagingException {
+            if (transport != null && clock.getAsLong() - lastUsedAt > maxIdleMs) {
+                disconnect();
+            }
+            if (transport == null) {
+                Transport opened = mailSender.getSession().getTransport(mailSender.getProtocol());
+                opened.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+                transport = opened;
+                sentOnConnection = 0;
+                lastUsedAt = clock.getAsLong();
+                mailMetrics.recordConnectionOpened();
+            }
+            return transport;
+        }
+
+        private void disconnect() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Ignoring error while closing SMTP connection", e);
+            }
+            transport = null;
+        }
+
+        @Override
+        public void close() {
+            leases.add(this);
+        }
+    }
+}
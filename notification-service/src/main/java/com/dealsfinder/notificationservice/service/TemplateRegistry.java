@@ -0,0 +1,82 @@
+package com.dealsfinder.notificationservice.service;
+
+import com.dealsfinder.notificationservice.model.NotificationMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// Notification copy, keyed by template id. Producers send a templateId and a few params instead of the full
+// text. Templates are read from notification.templates.location (<id>.subject, <id>.body and an optional
+// <id>.type) and compiled once. Pointing the location at a file outside the jar and calling reload() lets
+// copy change without redeploying anything.
+@Slf4j
+@Service
+public class TemplateRegistry {
+
+    private record Template(CompiledTemplate subject, CompiledTemplate body, String type) {}
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private volatile Map<String, Template> templates = Map.of();
+
+    public TemplateRegistry(ResourceLoader resourceLoader, @Value("${notification.templates.location}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+    }
+
+    @PostConstruct
+    public int reload() {
+        Properties properties = new Properties();
+        Resource resource = resourceLoader.getResource(location);
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read notification templates from " + location, e);
+        }
+
+        Map<String, Template> compiled = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.endsWith(".body")) {
+                continue;
+            }
+            String id = key.substring(0, key.length() - ".body".length());
+            String subject = properties.getProperty(id + ".subject");
+            if (subject == null) {
+                throw new IllegalArgumentException("Notification template " + id + " has a body but no subject");
+            }
+            compiled.put(id, new Template(CompiledTemplate.compile(subject), CompiledTemplate.compile(properties.getProperty(key)),
+                    properties.getProperty(id + ".type")));
+        }
+        // Swapped in whole, so a render never sees a half-loaded set
+        templates = Map.copyOf(compiled);
+        log.info("📝 Loaded {} notification template(s) from {}", compiled.size(), location);
+        return compiled.size();
+    }
+
+    // Messages without a templateId already carry their text and are returned as they are
+    public NotificationMessage render(NotificationMessage message) {
+        if (message.getTemplateId() == null) {
+            return message;
+        }
+        Template template = templates.get(message.getTemplateId());
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown notification template: " + message.getTemplateId());
+        }
+        return new NotificationMessage(message.getRecipient(),
+                template.subject().render(message.getParams()),
+                template.body().render(message.getParams()),
+                message.getType() != null ? message.getType() : template.type());
+    }
+}
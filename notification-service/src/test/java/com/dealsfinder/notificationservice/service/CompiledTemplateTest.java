@@ -0,0 +1,36 @@
+package com.dealsfinder.notificationservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledTemplateTest {
+
+    @Test
+    void testRendersEveryPlaceholder() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{ name }}, you got {{amount}} on {{deal}}.");
+
+        assertEquals("Hi Asha, you got ₹50.0 on Headphones.",
+                template.render(Map.of("name", "Asha", "amount", "₹50.0", "deal", "Headphones")));
+    }
+
+    @Test
+    void testTemplateWithoutPlaceholdersIsReturnedAsIs() {
+        assertEquals("Payment Confirmation", CompiledTemplate.compile("Payment Confirmation").render(null));
+    }
+
+    @Test
+    void testMissingParameterIsRejected() {
+        CompiledTemplate template = CompiledTemplate.compile("Cashback of {{amount}}");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+    }
+
+    @Test
+    void testUnclosedPlaceholderIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("Cashback of {{amount"));
+    }
+}
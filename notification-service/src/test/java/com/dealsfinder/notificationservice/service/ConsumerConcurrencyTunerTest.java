@@ -0,0 +1,62 @@
+package com.dealsfinder.notificationservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConsumerConcurrencyTunerTest {
+
+    private final ProviderRateLimiter rateLimiter = mock(ProviderRateLimiter.class);
+    private ConsumerConcurrencyTuner tuner;
+
+    @BeforeEach
+    void setUp() {
+        tuner = new ConsumerConcurrencyTuner(mock(RabbitListenerEndpointRegistry.class), mock(RabbitTemplate.class),
+                new MailMetrics(), rateLimiter, "notification-queue");
+        ReflectionTestUtils.setField(tuner, "provider", "smtp.example.com");
+        ReflectionTestUtils.setField(tuner, "minConsumers", 1);
+        ReflectionTestUtils.setField(tuner, "maxConsumers", 4);
+        ReflectionTestUtils.setField(tuner, "batchSize", 50);
+        ReflectionTestUtils.setField(tuner, "poolSize", 4);
+        when(rateLimiter.ratePerSecond("smtp.example.com")).thenReturn(5.0);
+    }
+
+    @Test
+    void testNextConsumerCount_ScalesUpWhileBacklogOutgrowsConsumers() {
+        assertEquals(2, tuner.nextConsumerCount(1, 51, false, 1000));
+        assertEquals(3, tuner.nextConsumerCount(2, 101, false, 1000));
+        // One batch per consumer is already covered
+        assertEquals(2, tuner.nextConsumerCount(2, 100, false, 1000));
+    }
+
+    @Test
+    void testNextConsumerCount_NeverExceedsMaxOrPoolSize() {
+        assertEquals(4, tuner.nextConsumerCount(4, 1_000_000, false, 1000));
+
+        ReflectionTestUtils.setField(tuner, "poolSize", 3);
+        assertEquals(3, tuner.nextConsumerCount(3, 1_000_000, false, 1000));
+        assertEquals(3, tuner.nextConsumerCount(4, 1_000_000, false, 1000));
+    }
+
+    @Test
+    void testNextConsumerCount_StopsOnceProviderRateIsCovered() {
+        // 5 sends/s at 400 ms each: two consumers keep the bucket busy
+        assertEquals(2, tuner.nextConsumerCount(2, 1_000_000, false, 400));
+        assertEquals(2, tuner.nextConsumerCount(3, 1_000_000, false, 400));
+        // Very fast sends never push the ceiling below min-concurrency
+        assertEquals(1, tuner.nextConsumerCount(1, 1_000_000, false, 10));
+    }
+
+    @Test
+    void testNextConsumerCount_ScalesDownWhenIdleOrBackingOff() {
+        assertEquals(2, tuner.nextConsumerCount(3, 0, false, 1000));
+        assertEquals(2, tuner.nextConsumerCount(3, 1_000_000, true, 1000));
+        assertEquals(1, tuner.nextConsumerCount(1, 0, true, 1000));
+    }
+}
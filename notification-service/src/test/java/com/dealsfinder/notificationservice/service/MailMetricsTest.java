@@ -0,0 +1,73 @@
+package com.dealsfinder.notificationservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MailMetricsTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final MailMetrics metrics = new MailMetrics(now::get);
+
+    @Test
+    void testSendsPerSecond_AveragesTheLastFullMinute() {
+        for (int second = 0; second < 30; second++) {
+            metrics.recordSent(1_000_000);
+            metrics.recordSent(1_000_000);
+            now.addAndGet(1_000);
+        }
+        assertEquals(1.0, metrics.sendsPerSecond(), 1e-9);
+
+        // The second still filling up is left out
+        metrics.recordSent(1_000_000);
+        assertEquals(1.0, metrics.sendsPerSecond(), 1e-9);
+
+        // Buckets older than a minute drop out: seconds 15-29 (two sends each) and the one send in second 30 remain
+        now.addAndGet(45_000);
+        assertEquals(31.0 / 60, metrics.sendsPerSecond(), 1e-9);
+    }
+
+    @Test
+    void testSendsPerSecond_ReusedBucketStartsFromZero() {
+        metrics.recordSent(1_000_000);
+        metrics.recordSent(1_000_000);
+        // Same slot, one window later
+        now.addAndGet(60_000);
+        metrics.recordSent(1_000_000);
+        now.addAndGet(1_000);
+
+        assertEquals(1.0 / 60, metrics.sendsPerSecond(), 1e-9);
+    }
+
+    @Test
+    void testSendLatency_IsAMovingAverage() {
+        metrics.recordSent(100_000_000);
+        assertEquals(100.0, metrics.sendLatencyMs(), 1e-9);
+
+        metrics.recordSent(200_000_000);
+        assertEquals(120.0, metrics.sendLatencyMs(), 1e-9);
+    }
+
+    @Test
+    void testSnapshot_ReportsConnectionReuse() {
+        metrics.recordConnectionOpened();
+        for (int i = 0; i < 4; i++) {
+            metrics.recordSent(1_000_000);
+        }
+        metrics.recordFailed();
+        metrics.recordReconnect();
+        metrics.recordThrottled();
+
+        Map<String, Object> stats = metrics.snapshot();
+
+        assertEquals(4L, stats.get("sent"));
+        assertEquals(1L, stats.get("failed"));
+        assertEquals(1L, stats.get("reconnects"));
+        assertEquals(1L, stats.get("throttled"));
+        assertEquals(4.0, stats.get("messagesPerConnection"));
+        assertEquals(0.75, stats.get("connectionReuseRatio"));
+    }
+}
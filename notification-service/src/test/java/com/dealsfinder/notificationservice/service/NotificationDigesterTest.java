@@ -0,0 +1,99 @@
+package com.dealsfinder.notificationservice.service;
+
+import com.dealsfinder.notificationservice.model.NotificationMessage;
+import com.dealsfinder.notificationservice.service.NotificationDigester.Delivery;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationDigesterTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+    private final NotificationDigester digester = new NotificationDigester(5_000, 3, Set.of("SECURITY"), now::get);
+    private final Channel channel = openChannel();
+
+    @Test
+    void testMessagesForOneRecipientAreMergedAfterTheWindow() {
+        assertTrue(digester.offer(List.of(
+                delivery(new NotificationMessage("a@example.com", "Payment Confirmation", "Paid", "PAYMENT_CONFIRMATION"), 1),
+                delivery(new NotificationMessage("A@example.com", "Cashback Received", "Credited", "CASHBACK"), 2))).isEmpty());
+
+        now.set(4_999);
+        assertTrue(digester.drainDue().isEmpty());
+        now.set(5_000);
+        List<Delivery> due = digester.drainDue();
+
+        assertEquals(1, due.size());
+        assertEquals("Your DealsFinder updates (2)", due.get(0).message().getSubject());
+        assertEquals("Payment Confirmation\n\nPaid" + NotificationDigester.SEPARATOR + "Cashback Received\n\nCredited",
+                due.get(0).message().getMessage());
+        // Sending the digest settles both deliveries
+        assertEquals(List.of(1L, 2L), due.get(0).receipts().stream().map(DeliveryReceipt::deliveryTag).toList());
+        assertEquals(0, digester.pendingRecipients());
+    }
+
+    @Test
+    void testLoneMessageGoesOutUnchanged() {
+        Delivery delivery = delivery(new NotificationMessage("a@example.com", "Cashback Received", "Credited", "CASHBACK"), 1);
+        digester.offer(List.of(delivery));
+
+        now.set(5_000);
+
+        assertEquals(List.of(delivery), digester.drainDue());
+    }
+
+    @Test
+    void testUrgentMessagesBypassTheBuffer() {
+        Delivery urgent = delivery(new NotificationMessage("a@example.com", "New login", "Was this you?", "SECURITY"), 1);
+
+        assertEquals(List.of(urgent), digester.offer(List.of(urgent)));
+        assertEquals(0, digester.pendingRecipients());
+    }
+
+    @Test
+    void testFullBufferIsSentEarly() {
+        NotificationMessage message = new NotificationMessage("a@example.com", "Deal alert", "50% off", "DEAL_ALERT");
+
+        List<Delivery> sendNow = digester.offer(List.of(delivery(message, 1), delivery(message, 2), delivery(message, 3)));
+
+        assertEquals(1, sendNow.size());
+        assertEquals("Your DealsFinder updates (3)", sendNow.get(0).message().getSubject());
+        assertEquals(3, sendNow.get(0).receipts().size());
+        assertEquals(0, digester.pendingRecipients());
+    }
+
+    @Test
+    void testReleasedDeliveriesAreLeftOutOfTheDigest() {
+        Channel closed = mock(Channel.class);
+        digester.offer(List.of(
+                delivery(new NotificationMessage("a@example.com", "Payment Confirmation", "Paid", "PAYMENT_CONFIRMATION"), 1),
+                new Delivery(new NotificationMessage("a@example.com", "Cashback Received", "Credited", "CASHBACK"),
+                        List.of(new DeliveryReceipt(closed, 7)))));
+
+        now.set(5_000);
+        List<Delivery> due = digester.drainDue();
+
+        // The broker redelivers the cashback email, so only the confirmation goes out now
+        assertEquals(1, due.size());
+        assertEquals("Payment Confirmation", due.get(0).message().getSubject());
+        assertEquals(List.of(1L), due.get(0).receipts().stream().map(DeliveryReceipt::deliveryTag).toList());
+    }
+
+    private Delivery delivery(NotificationMessage message, long deliveryTag) {
+        return new Delivery(message, List.of(new DeliveryReceipt(channel, deliveryTag)));
+    }
+
+    private static Channel openChannel() {
+        Channel channel = mock(Channel.class);
+        when(channel.isOpen()).thenReturn(true);
+        return channel;
+    }
+}
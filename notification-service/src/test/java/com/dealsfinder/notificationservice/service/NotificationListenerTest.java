@@ -0,0 +1,76 @@
+package com.dealsfinder.notificationservice.service;
+
+import com.dealsfinder.notificationservice.model.NotificationMessage;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationListenerTest {
+
+    private final EmailService emailService = mock(EmailService.class);
+    private final RetryPublisher retryPublisher = mock(RetryPublisher.class);
+    private final NotificationDigester notificationDigester = mock(NotificationDigester.class);
+    private final TemplateRegistry templateRegistry = mock(TemplateRegistry.class);
+    private final Channel channel = mock(Channel.class);
+    private final NotificationListener listener =
+            new NotificationListener(emailService, retryPublisher, notificationDigester, templateRegistry);
+
+    private final NotificationMessage sent = new NotificationMessage("a@example.com", "Hi", "sent");
+    private final NotificationMessage failed = new NotificationMessage("b@example.com", "Hi", "failed");
+
+    @BeforeEach
+    void setUp() {
+        // No digest window and plain-text messages: everything goes straight to sendBatch
+        when(notificationDigester.offer(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(templateRegistry.render(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(channel.isOpen()).thenReturn(true);
+        when(emailService.sendBatch(anyList()))
+                .thenReturn(List.of(new EmailService.Failure(failed, new IllegalStateException("SMTP down"))));
+    }
+
+    @Test
+    void testHandleNotifications_FailedEmailIsHandedOffAndEverythingAcked() throws Exception {
+        listener.handleNotifications(List.of(message(sent, 1), message(failed, 2)), channel);
+
+        verify(retryPublisher).retry(eq(failed), eq(0), any(IllegalStateException.class));
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void testHandleNotifications_FailedHandOffRequeuesOnlyThatEmail() throws Exception {
+        doThrow(new AmqpException("broker down")).when(retryPublisher).retry(eq(failed), anyInt(), any());
+
+        assertThrows(AmqpException.class,
+                () -> listener.handleNotifications(List.of(message(sent, 1), message(failed, 2)), channel));
+
+        // The email that went out must not be sent again
+        verify(channel).basicAck(1, false);
+        verify(channel).basicNack(2, false, true);
+        verify(channel, never()).basicNack(eq(1L), anyBoolean(), anyBoolean());
+    }
+
+    private static Message<NotificationMessage> message(NotificationMessage payload, long deliveryTag) {
+        return MessageBuilder.withPayload(payload).setHeader(AmqpHeaders.DELIVERY_TAG, deliveryTag).build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.dealsfinder.notificationservice.service;
+
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testTokenBucket_BurstThenRefill() {
+        ProviderRateLimiter.TokenBucket bucket = new ProviderRateLimiter.TokenBucket(2, 2);
+
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(0, bucket.reserve(0));
+        // Out of tokens: callers queue up half a second apart
+        assertEquals(SECOND / 2, bucket.reserve(0));
+        assertEquals(SECOND, bucket.reserve(0));
+
+        // Two seconds refill the two borrowed tokens and the burst, but never beyond capacity
+        assertEquals(0, bucket.reserve(3 * SECOND));
+        assertEquals(0, bucket.reserve(3 * SECOND));
+        assertEquals(SECOND / 2, bucket.reserve(3 * SECOND));
+    }
+
+    @Test
+    void testTokenBucket_PauseHoldsSendsUntilItEnds() {
+        ProviderRateLimiter.TokenBucket bucket = new ProviderRateLimiter.TokenBucket(2, 2);
+        assertEquals(0, bucket.reserve(0));
+
+        bucket.pause(0, SECOND);
+
+        // Nothing accrues during the pause, and the burst is gone: wait out the pause plus one token
+        assertEquals(SECOND, bucket.reserve(SECOND / 2));
+        // Refill restarts when the pause ends, so the next slot is half a second after the previous one
+        assertEquals(SECOND / 2, bucket.reserve(3 * SECOND / 2));
+    }
+
+    @Test
+    void testAcquire_WaitsOutTheWholeReservation() throws InterruptedException {
+        // 10 sends/s with room for a single token: the second send is due 100 ms after the first
+        ProviderRateLimiter limiter = new ProviderRateLimiter(10, "", 0, 60_000);
+        long startedAt = System.nanoTime();
+        limiter.acquire("smtp.example.com");
+        limiter.acquire("smtp.example.com");
+
+        assertTrue(System.nanoTime() - startedAt >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void testRatePerSecond_ProviderOverrides() {
+        ProviderRateLimiter limiter = new ProviderRateLimiter(5, "smtp.gmail.com=2, smtp.example.com = 20", 2, 60_000);
+
+        assertEquals(2, limiter.ratePerSecond("smtp.gmail.com"));
+        assertEquals(20, limiter.ratePerSecond("smtp.example.com"));
+        assertEquals(5, limiter.ratePerSecond("smtp.other.com"));
+    }
+
+    @Test
+    void testIsThrottling_RecognisesThrottlingReplies() {
+        assertTrue(ProviderRateLimiter.isThrottling(new MessagingException("421 Try again later")));
+        assertTrue(ProviderRateLimiter.isThrottling(new MessagingException("Send failed",
+                new MessagingException("450 4.7.28 Rate limit exceeded"))));
+        assertFalse(ProviderRateLimiter.isThrottling(new MessagingException("550 5.1.1 No such user")));
+    }
+}
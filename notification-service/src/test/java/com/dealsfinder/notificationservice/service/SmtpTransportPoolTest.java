@@ -0,0 +1,122 @@
+package com.dealsfinder.notificationservice.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SmtpTransportPoolTest {
+
+    private static final String PROVIDER = "smtp.example.com";
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final Session session = mock(Session.class);
+    private final ProviderRateLimiter rateLimiter = mock(ProviderRateLimiter.class);
+    private final MailMetrics mailMetrics = new MailMetrics(now::get);
+    private final Transport first = mock(Transport.class);
+    private final Transport second = mock(Transport.class);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(session.getTransport(anyString())).thenReturn(first, second);
+    }
+
+    @Test
+    void testSend_DroppedConnectionIsReopenedOnceWithAFreshToken() throws Exception {
+        doThrow(new MessagingException("Connection reset")).when(first).sendMessage(any(), any());
+
+        try (SmtpTransportPool.Lease lease = pool(100, 30_000).acquire()) {
+            lease.send(message());
+        }
+
+        verify(first).close();
+        verify(second).sendMessage(any(MimeMessage.class), any(Address[].class));
+        // The resend is a second send attempt, so it waits for its own token
+        verify(rateLimiter, times(2)).acquire(PROVIDER);
+        assertEquals(1L, mailMetrics.snapshot().get("reconnects"));
+        assertEquals(2L, mailMetrics.snapshot().get("connectionsOpened"));
+        assertEquals(1L, mailMetrics.snapshot().get("sent"));
+    }
+
+    @Test
+    void testSend_SecondFailureGivesUpOnTheMessage() throws Exception {
+        doThrow(new MessagingException("Connection reset")).when(first).sendMessage(any(), any());
+        doThrow(new MessagingException("Connection reset")).when(second).sendMessage(any(), any());
+
+        try (SmtpTransportPool.Lease lease = pool(100, 30_000).acquire()) {
+            assertThrows(MessagingException.class, () -> lease.send(message()));
+        }
+
+        verify(session, times(2)).getTransport(anyString());
+        assertEquals(0L, mailMetrics.snapshot().get("sent"));
+    }
+
+    @Test
+    void testSend_ConnectionIsRecycledAfterMaxMessages() throws Exception {
+        try (SmtpTransportPool.Lease lease = pool(2, 30_000).acquire()) {
+            lease.send(message());
+            lease.send(message());
+            lease.send(message());
+        }
+
+        verify(first, times(2)).sendMessage(any(MimeMessage.class), any(Address[].class));
+        verify(first).close();
+        verify(second).sendMessage(any(MimeMessage.class), any(Address[].class));
+        assertEquals(1.5, mailMetrics.snapshot().get("messagesPerConnection"));
+    }
+
+    @Test
+    void testSend_IdleConnectionIsReopened() throws Exception {
+        SmtpTransportPool pool = pool(100, 30_000);
+        try (SmtpTransportPool.Lease lease = pool.acquire()) {
+            lease.send(message());
+        }
+
+        now.addAndGet(30_000);
+        try (SmtpTransportPool.Lease lease = pool.acquire()) {
+            lease.send(message());
+        }
+        verify(first, never()).close();
+
+        now.addAndGet(30_001);
+        try (SmtpTransportPool.Lease lease = pool.acquire()) {
+            lease.send(message());
+        }
+        verify(first).close();
+        verify(second).sendMessage(any(MimeMessage.class), any(Address[].class));
+    }
+
+    private SmtpTransportPool pool(int maxMessagesPerConnection, long maxIdleMs) {
+        JavaMailSenderImpl mailSender = mock(JavaMailSenderImpl.class);
+        when(mailSender.getHost()).thenReturn(PROVIDER);
+        when(mailSender.getProtocol()).thenReturn("smtp");
+        when(mailSender.getSession()).thenReturn(session);
+        return new SmtpTransportPool(mailSender, mailMetrics, rateLimiter, 1, maxMessagesPerConnection, maxIdleMs, now::get);
+    }
+
+    private static MimeMessage message() throws MessagingException {
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        message.setRecipients(MimeMessage.RecipientType.TO, "a@example.com");
+        message.setSubject("Cashback Received");
+        message.setText("Credited");
+        return message;
+    }
+}
@@ -0,0 +1,46 @@
+package com.dealsfinder.notificationservice.service;
+
+import com.dealsfinder.notificationservice.model.NotificationMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TemplateRegistryTest {
+
+    private final TemplateRegistry registry =
+            new TemplateRegistry(new DefaultResourceLoader(), "classpath:notification-templates.properties");
+
+    TemplateRegistryTest() {
+        registry.reload();
+    }
+
+    @Test
+    void testRendersTemplateMessage() {
+        NotificationMessage rendered = registry.render(
+                NotificationMessage.fromTemplate("a@example.com", "cashback-received",
+                        Map.of("amount", "12.50", "currency", "USD")));
+
+        assertEquals("a@example.com", rendered.getRecipient());
+        assertEquals("🎉 Cashback Received!", rendered.getSubject());
+        assertEquals("Hi there,\n\nYou just received a cashback of 12.50 USD", rendered.getMessage());
+        assertEquals("CASHBACK", rendered.getType());
+    }
+
+    @Test
+    void testFullTextMessagePassesThrough() {
+        NotificationMessage message = new NotificationMessage("a@example.com", "Hello", "Body");
+
+        assertSame(message, registry.render(message));
+    }
+
+    @Test
+    void testUnknownTemplateIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> registry.render(
+                NotificationMessage.fromTemplate("a@example.com", "no-such-template", Map.of())));
+    }
+}
@@ -0,0 +1,37 @@
+package com.dealsfinder.paymentservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+@Configuration
+public class AsyncCheckoutConfig {
+
+    @Value("${checkout.async.pool-size}")
+    private int poolSize;
+
+    @Value("${checkout.async.queue-capacity}")
+    private int queueCapacity;
+
+    // Bounded on both threads and queue: when the gateway is slow, submissions are rejected
+    // instead of piling up on Tomcat threads or in memory
+    @Bean
+    public ThreadPoolTaskExecutor checkoutThreadPool() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("checkout-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // Carries the caller's security context over so Feign still forwards the JWT to deal-service
+    @Bean
+    public AsyncTaskExecutor checkoutExecutor(ThreadPoolTaskExecutor checkoutThreadPool) {
+        return new DelegatingSecurityContextAsyncTaskExecutor(checkoutThreadPool);
+    }
+}
@@ -6,8 +6,10 @@ import com.braintreegateway.TransactionGateway;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 @Configuration
+@Profile("!gateway-sim")
 public class BraintreeConfig {
 
     @Value("${braintree.merchant-id}")
@@ -0,0 +1,19 @@
+package com.dealsfinder.paymentservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class DealLookupConfig {
+
+    // Deal lookups are pure I/O, so a virtual thread each is enough. The security context is
+    // propagated because FeignConfig reads the caller's JWT from it.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService dealLookupExecutor() {
+        return new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -1,6 +1,6 @@
 package com.dealsfinder.paymentservice.config;
 
-import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
@@ -10,17 +10,16 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class RabbitMQConfig {
 
-    public static final String NOTIFICATION_QUEUE = "notification-queue";
-    public static final String CASHBACK_QUEUE = "cashback-queue";
+    // Consumers (cashback-service, notification-service, ...) bind their own queues to this exchange. The outbox
+    // relay publishes as mandatory, so events stay in the outbox until some queue is bound for them.
+    public static final String PAYMENT_EXCHANGE = "payment-exchange";
+    public static final String PAYMENT_COMPLETED_KEY = "payment.completed";
+    // Carries the user's email; consistent-hash consumers shard on it to keep each user's events in order
+    public static final String PARTITION_KEY_HEADER = "x-partition-key";
 
     @Bean
-    public Queue notificationQueue() {
-        return new Queue(NOTIFICATION_QUEUE);
-    }
-
-    @Bean
-    public Queue cashbackQueue() {
-        return new Queue(CASHBACK_QUEUE);
+    public TopicExchange paymentExchange() {
+        return new TopicExchange(PAYMENT_EXCHANGE, true, false);
     }
 
     @Bean
@@ -41,7 +41,11 @@ public class SecurityConfig {
                                 "/webjars/**"
                         ).permitAll()
 
-                        .requestMatchers("/payments/checkout").hasAnyAuthority("ROLE_USER", "ROLE_ADMIN")
+                        // Authenticated by the webhook signature, not a JWT
+                        .requestMatchers("/payments/webhooks/**").permitAll()
+
+                        .requestMatchers("/payments/checkout", "/payments/checkout/async").hasAnyAuthority("ROLE_USER", "ROLE_ADMIN")
+                        .requestMatchers("/payments/*/status").hasAnyAuthority("ROLE_USER", "ROLE_ADMIN")
                         .requestMatchers("/payments/user/**").hasAnyAuthority("ROLE_USER", "ROLE_ADMIN")
                         .requestMatchers("/payments/**").hasAuthority("ROLE_ADMIN")
                         .anyRequest().authenticated()
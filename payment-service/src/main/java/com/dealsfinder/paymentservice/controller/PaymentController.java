@@ -1,82 +1,135 @@
 package com.dealsfinder.paymentservice.controller;
 
-import com.braintreegateway.*;
 import com.dealsfinder.paymentservice.dto.PaymentRequestDto;
+import com.dealsfinder.paymentservice.dto.RevenueByDay;
+import com.dealsfinder.paymentservice.dto.RevenueByDeal;
+import com.dealsfinder.paymentservice.dto.RevenueByUser;
+import com.dealsfinder.paymentservice.entity.CheckoutAttempt;
 import com.dealsfinder.paymentservice.entity.PaymentTransaction;
+import com.dealsfinder.paymentservice.exception.CheckoutRejectedException;
+import com.dealsfinder.paymentservice.exception.DealLookupException;
+import com.dealsfinder.paymentservice.exception.InvalidPaymentRequestException;
+import com.dealsfinder.paymentservice.exception.PaymentDeclinedException;
+import com.dealsfinder.paymentservice.exception.PaymentGatewayException;
+import com.dealsfinder.paymentservice.exception.PaymentNotRecordedException;
 import com.dealsfinder.paymentservice.repository.PaymentTransactionRepository;
-import com.dealsfinder.paymentservice.service.PaymentService;
+import com.dealsfinder.paymentservice.service.AsyncCheckoutService;
+import com.dealsfinder.paymentservice.service.CheckoutService;
+import com.dealsfinder.paymentservice.service.IdempotencyService;
+import com.dealsfinder.paymentservice.service.PaymentHistoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/payments")
 @RequiredArgsConstructor
 public class PaymentController {
 
-    private final BraintreeGateway braintreeGateway;
+    private static final int MAX_REPORT_ROWS = 500;
+
+    private final CheckoutService checkoutService;
     private final PaymentTransactionRepository paymentTransactionRepository;
 
 
     @Autowired
-    private PaymentService paymentService;
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private PaymentHistoryService paymentHistoryService;
 
+    // Retries carrying the same Idempotency-Key replay the first response instead of charging again
     @PostMapping("/checkout")
-    public ResponseEntity<String> checkout(@RequestBody PaymentRequestDto request) {
-        if (request.getAmount() == null || new BigDecimal(request.getAmount()).compareTo(BigDecimal.ZERO) <= 0) {
-            return ResponseEntity.badRequest().body("Invalid amount.");
+    public ResponseEntity<String> checkout(@RequestBody PaymentRequestDto request,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return doCheckout(request);
         }
+        if (idempotencyKey.length() > 255) {
+            return ResponseEntity.badRequest().body("Idempotency-Key must be at most 255 characters.");
+        }
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        return idempotencyService.execute(idempotencyKey, userEmail, request, () -> doCheckout(request));
+    }
 
-        if (request.getPaymentMethodNonce() == null || request.getPaymentMethodNonce().isEmpty()) {
-            return ResponseEntity.badRequest().body("Missing payment method nonce.");
+    // 400 and 503 are only returned before the card is charged, so IdempotencyService frees the key for them.
+    // Every other response may follow a charge and is kept for the key.
+    private ResponseEntity<String> doCheckout(PaymentRequestDto request) {
+        try {
+            PaymentTransaction payment = checkoutService.checkout(request);
+            return ResponseEntity.ok("Transaction successful. ID: " + payment.getTransactionId());
+        } catch (InvalidPaymentRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (CheckoutRejectedException | DealLookupException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+        } catch (PaymentDeclinedException e) {
+            return ResponseEntity.status(402).body("Payment declined: " + e.getMessage());
+        } catch (PaymentNotRecordedException e) {
+            return ResponseEntity.status(500).body(e.getMessage() + ". Please contact support instead of retrying.");
+        } catch (PaymentGatewayException e) {
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(500).body("Payment processing failed: " + e.getMessage());
         }
+    }
 
-        TransactionRequest transactionRequest = new TransactionRequest()
-                .amount(new BigDecimal(request.getAmount()))
-                .paymentMethodNonce(request.getPaymentMethodNonce())
-                .options()
-                .submitForSettlement(true)
-                .done();
-
-        Result<Transaction> result = braintreeGateway.transaction().sale(transactionRequest); // <- fix here
-
-        if (result.isSuccess()) {
-            Transaction transaction = result.getTarget();
-
-            PaymentTransaction paymentRecord = PaymentTransaction.builder()
-                    .transactionId(transaction.getId())
-                    .status(transaction.getStatus().toString())
-                    .amount(transaction.getAmount().toPlainString())
-                    .paymentMethod(transaction.getPaymentInstrumentType())
-                    .createdAt(LocalDateTime.now())
-                    .userEmail(request.getUserEmail())
-                    .dealId(request.getDealId())
-                    .build();
-
-            try {
-                paymentService.processPayment(paymentRecord);
-                return ResponseEntity.ok("Transaction successful. ID: " + transaction.getId());
-            } catch (RuntimeException e) {
-                return ResponseEntity.badRequest().body("Payment processing failed: " + e.getMessage());
-            }
-        } else {
-            return ResponseEntity.status(500).body("Error: " + result.getMessage());
+    // Returns 202 straight away; the gateway call and bookkeeping run on the bounded checkout pool
+    @PostMapping("/checkout/async")
+    public ResponseEntity<?> checkoutAsync(@RequestBody PaymentRequestDto request) {
+        try {
+            checkoutService.validate(request);
+            CheckoutAttempt attempt = asyncCheckoutService.submit(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/payments/" + attempt.getPaymentId() + "/status"))
+                    .body(Map.of("paymentId", attempt.getPaymentId(), "status", attempt.getStatus()));
+        } catch (InvalidPaymentRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (CheckoutRejectedException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
         }
     }
 
+    @GetMapping("/{paymentId}/status")
+    public ResponseEntity<CheckoutAttempt> getCheckoutStatus(@PathVariable String paymentId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+
+        return asyncCheckoutService.findById(paymentId)
+                .filter(attempt -> isAdmin || authentication.getName().equals(attempt.getUserEmail()))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Newest first; follow nextCursor via "after" for older payments
     @GetMapping("/user/transactions")
-    public ResponseEntity<List<PaymentTransaction>> getUserTransactions() {
+    public ResponseEntity<?> getUserTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userEmail = authentication.getName();
-        List<PaymentTransaction> transactions = paymentTransactionRepository.findByUserEmail(userEmail);
-        return ResponseEntity.ok(transactions);
+        try {
+            return ResponseEntity.ok(paymentHistoryService.getHistory(userEmail, from, to, status, after, limit));
+        } catch (InvalidPaymentRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/admin/all")
@@ -84,4 +137,36 @@ public class PaymentController {
         List<PaymentTransaction> allTransactions = paymentTransactionRepository.findAll();
         return ResponseEntity.ok(allTransactions);
     }
+
+    // Revenue reports: [from, to] are inclusive calendar days, defaulting to the last 30 days
+    @GetMapping("/admin/revenue/daily")
+    public ResponseEntity<List<RevenueByDay>> getRevenueByDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return ResponseEntity.ok(paymentTransactionRepository.revenueByDay(start.atStartOfDay(), end.plusDays(1).atStartOfDay()));
+    }
+
+    @GetMapping("/admin/revenue/deals")
+    public ResponseEntity<List<RevenueByDeal>> getRevenueByDeal(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "50") int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return ResponseEntity.ok(paymentTransactionRepository.revenueByDeal(start.atStartOfDay(), end.plusDays(1).atStartOfDay(),
+                PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_REPORT_ROWS))));
+    }
+
+    @GetMapping("/admin/revenue/users")
+    public ResponseEntity<List<RevenueByUser>> getRevenueByUser(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "50") int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return ResponseEntity.ok(paymentTransactionRepository.revenueByUser(start.atStartOfDay(), end.plusDays(1).atStartOfDay(),
+                PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_REPORT_ROWS))));
+    }
 }
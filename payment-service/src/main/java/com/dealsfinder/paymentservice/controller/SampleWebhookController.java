@@ -0,0 +1,31 @@
+package com.dealsfinder.paymentservice.controller;
+
+import com.dealsfinder.paymentservice.exception.InvalidPaymentRequestException;
+import com.dealsfinder.paymentservice.gateway.SimulatedPaymentGateway;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Local payload generator, only under "gateway-sim": the samples are signed with the simulator's throwaway keys,
+// so they are only accepted by the simulator, never by a Braintree-backed instance
+@RestController
+@RequestMapping("/payments")
+@Profile("gateway-sim")
+@RequiredArgsConstructor
+public class SampleWebhookController {
+
+    private final SimulatedPaymentGateway simulatedPaymentGateway;
+
+    // POST the returned fields to /payments/webhooks/braintree
+    @GetMapping("/admin/webhooks/sample")
+    public ResponseEntity<?> sampleWebhook(@RequestParam String kind, @RequestParam String transactionId) {
+        try {
+            return ResponseEntity.ok(simulatedPaymentGateway.sampleWebhook(kind, transactionId));
+        } catch (InvalidPaymentRequestException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
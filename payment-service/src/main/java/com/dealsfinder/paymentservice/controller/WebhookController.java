@@ -0,0 +1,40 @@
+package com.dealsfinder.paymentservice.controller;
+
+import com.dealsfinder.paymentservice.exception.InvalidPaymentRequestException;
+import com.dealsfinder.paymentservice.gateway.PaymentGateway;
+import com.dealsfinder.paymentservice.gateway.SettlementNotification;
+import com.dealsfinder.paymentservice.service.SettlementUpdateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/payments")
+@RequiredArgsConstructor
+public class WebhookController {
+
+    private final PaymentGateway paymentGateway;
+    private final SettlementUpdateService settlementUpdateService;
+
+    // Braintree posts bt_signature/bt_payload as a form; the signature is the authentication
+    @PostMapping(value = "/webhooks/braintree", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<String> receiveWebhook(@RequestParam("bt_signature") String signature,
+                                                 @RequestParam("bt_payload") String payload) {
+        SettlementNotification notification;
+        try {
+            notification = paymentGateway.parseWebhook(signature, payload);
+        } catch (InvalidPaymentRequestException e) {
+            return ResponseEntity.status(403).body(e.getMessage());
+        }
+
+        if (notification == null) {
+            return ResponseEntity.ok("Ignored");
+        }
+        if (!settlementUpdateService.enqueue(notification)) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5").body("Could not record the webhook.");
+        }
+        return ResponseEntity.ok("Accepted");
+    }
+}
@@ -1,14 +0,0 @@
-package com.dealsfinder.paymentservice.dto;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-public class NotificationMessage {
-    private String recipient;
-    private String subject;
-    private String  message;
-}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.dealsfinder.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Published once per successful checkout to RabbitMQConfig.PAYMENT_EXCHANGE; each consumer derives what it
+// needs (cashback, notification text, ...) from the facts here
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentCompletedEvent {
+    private String transactionId;
+    private String userEmail;
+    private long dealId;
+    private String dealCategory;
+    private long amountMinor;
+    private String currency;
+    private BigDecimal amount;
+    private String paymentMethod;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,25 @@
+package com.dealsfinder.paymentservice.dto;
+
+import com.dealsfinder.paymentservice.util.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Slim row for the user's payment history; only the columns the history page shows
+@Data
+@AllArgsConstructor
+public class PaymentHistoryItem {
+    private String transactionId;
+    private long dealId;
+    private String status;
+    private long amountMinor;
+    private String currency;
+    private String paymentMethod;
+    private LocalDateTime createdAt;
+
+    public BigDecimal getAmount() {
+        return currency == null ? null : Money.fromMinorUnits(amountMinor, currency);
+    }
+}
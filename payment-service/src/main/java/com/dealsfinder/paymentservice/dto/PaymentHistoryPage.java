@@ -0,0 +1,13 @@
+package com.dealsfinder.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PaymentHistoryPage {
+    private List<PaymentHistoryItem> payments;
+    private String nextCursor; // pass back as "after" to get the next page, null on the last page
+}
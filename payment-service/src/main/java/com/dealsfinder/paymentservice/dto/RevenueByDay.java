@@ -0,0 +1,21 @@
+package com.dealsfinder.paymentservice.dto;
+
+import com.dealsfinder.paymentservice.util.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class RevenueByDay {
+    private LocalDate day;
+    private String currency;
+    private long payments;
+    private long totalMinor;
+
+    public BigDecimal getTotal() {
+        return Money.fromMinorUnits(totalMinor, currency);
+    }
+}
@@ -0,0 +1,20 @@
+package com.dealsfinder.paymentservice.dto;
+
+import com.dealsfinder.paymentservice.util.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class RevenueByUser {
+    private String userEmail;
+    private String currency;
+    private long payments;
+    private long totalMinor;
+
+    public BigDecimal getTotal() {
+        return Money.fromMinorUnits(totalMinor, currency);
+    }
+}
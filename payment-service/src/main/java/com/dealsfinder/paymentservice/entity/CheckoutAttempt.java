@@ -0,0 +1,35 @@
+package com.dealsfinder.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Tracks an async checkout from 202 Accepted until the pipeline finishes
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckoutAttempt {
+
+    public enum Status { PENDING, PROCESSING, SUCCEEDED, FAILED }
+
+    public static final int MESSAGE_LENGTH = 255;
+
+    @Id
+    private String paymentId;
+
+    private String userEmail;
+    private long dealId;
+    private String amount;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private String transactionId;
+    @Column(length = MESSAGE_LENGTH)
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
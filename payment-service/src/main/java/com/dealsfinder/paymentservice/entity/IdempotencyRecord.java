@@ -0,0 +1,54 @@
+package com.dealsfinder.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord implements Persistable<String> {
+
+    public enum Status { IN_PROGRESS, COMPLETED }
+
+    // SHA-256 of "userEmail:Idempotency-Key", so keys are scoped per user and fixed length
+    @Id
+    private String id;
+
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private int responseStatus;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    private LocalDateTime createdAt;
+
+    // TTL of a COMPLETED response; for an IN_PROGRESS claim, the lease after which another request may take it over
+    private LocalDateTime expiresAt;
+
+    // Forces an INSERT on first save so two instances racing for the same key hit the primary key
+    // instead of silently merging over each other
+    @Transient
+    @Builder.Default
+    private boolean newRecord = true;
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newRecord = false;
+    }
+}
@@ -0,0 +1,38 @@
+package com.dealsfinder.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_status_id", columnList = "status, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    public enum Status { PENDING, SENT }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String exchange;
+    private String routingKey;
+
+    // Sent as the RabbitMQConfig.PARTITION_KEY_HEADER header so sharded consumers keep per-key ordering (nullable)
+    private String partitionKey;
+
+    // Already-serialized message body and its __TypeId__, so the relay publishes bytes as-is
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+    private String payloadType;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+}
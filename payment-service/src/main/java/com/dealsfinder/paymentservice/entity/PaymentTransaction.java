@@ -1,11 +1,19 @@
 package com.dealsfinder.paymentservice.entity;
 
+import com.dealsfinder.paymentservice.util.Money;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_payment_created_at", columnList = "createdAt"),
+        @Index(name = "idx_payment_deal_id", columnList = "dealId"),
+        @Index(name = "idx_payment_user_created", columnList = "userEmail, createdAt, transactionId")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,8 +25,24 @@ public class PaymentTransaction {
 
     private String userEmail;
     private long dealId;
+    // Copied from the deal at checkout so consumers (cashback rules) need not look it up again
+    private String dealCategory;
     private String status;
-    private String amount;
+    // Provider timestamp of the webhook that last set status, used to ignore stale or replayed webhooks
+    private LocalDateTime statusUpdatedAt;
+
+    // Exact integer amount in the currency's minor unit, e.g. 10050 INR = ₹100.50
+    private long amountMinor;
+
+    @Column(length = 3)
+    private String currency;
+
     private String paymentMethod;
     private LocalDateTime createdAt;
+
+    // Decimal amount for API responses and messages, derived from the stored minor units
+    @JsonProperty("amount")
+    public BigDecimal getAmount() {
+        return currency == null ? null : Money.fromMinorUnits(amountMinor, currency);
+    }
 }
@@ -0,0 +1,28 @@
+package com.dealsfinder.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// A verified settlement/dispute webhook, stored before it is acknowledged and deleted once applied
+@Entity
+@Table(name = "pending_settlement", indexes = @Index(name = "idx_pending_settlement_due", columnList = "nextAttemptAt, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingSettlement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String transactionId;
+    private String status;
+    private LocalDateTime occurredAt;
+
+    private LocalDateTime receivedAt;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+}
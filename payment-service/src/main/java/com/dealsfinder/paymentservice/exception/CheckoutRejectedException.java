@@ -0,0 +1,8 @@
+package com.dealsfinder.paymentservice.exception;
+
+// Checkout is out of capacity (async pool full or gateway concurrency limit reached); the client should retry later
+public class CheckoutRejectedException extends RuntimeException {
+    public CheckoutRejectedException(String message) {
+        super(message);
+    }
+}
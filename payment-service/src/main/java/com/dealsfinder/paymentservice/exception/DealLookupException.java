@@ -0,0 +1,8 @@
+package com.dealsfinder.paymentservice.exception;
+
+// deal-service could not be asked (timeout, error, interruption) before anything was charged; the client can retry
+public class DealLookupException extends RuntimeException {
+    public DealLookupException(String message) {
+        super(message);
+    }
+}
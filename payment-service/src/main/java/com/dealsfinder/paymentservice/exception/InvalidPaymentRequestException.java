@@ -0,0 +1,8 @@
+package com.dealsfinder.paymentservice.exception;
+
+// The checkout request itself is invalid; rejected before any remote call is charged
+public class InvalidPaymentRequestException extends RuntimeException {
+    public InvalidPaymentRequestException(String message) {
+        super(message);
+    }
+}
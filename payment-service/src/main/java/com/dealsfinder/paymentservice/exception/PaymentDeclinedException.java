@@ -0,0 +1,8 @@
+package com.dealsfinder.paymentservice.exception;
+
+// The payment provider answered and declined the charge; this is a final outcome, retrying the same request will not help
+public class PaymentDeclinedException extends PaymentGatewayException {
+    public PaymentDeclinedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dealsfinder.paymentservice.exception;
+
+// The payment provider failed the charge (unreachable, timed out or erroring); nothing was recorded on our side.
+// Declines are the PaymentDeclinedException subclass.
+public class PaymentGatewayException extends RuntimeException {
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+}
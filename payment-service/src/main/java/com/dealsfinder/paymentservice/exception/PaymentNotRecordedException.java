@@ -0,0 +1,15 @@
+package com.dealsfinder.paymentservice.exception;
+
+import lombok.Getter;
+
+// The card was charged but the payment could not be saved; retrying would charge it again
+@Getter
+public class PaymentNotRecordedException extends RuntimeException {
+
+    private final String transactionId;
+
+    public PaymentNotRecordedException(String transactionId, Throwable cause) {
+        super("Payment " + transactionId + " was charged but could not be recorded", cause);
+        this.transactionId = transactionId;
+    }
+}
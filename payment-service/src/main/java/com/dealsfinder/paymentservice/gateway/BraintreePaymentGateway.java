@@ -0,0 +1,96 @@
+package com.dealsfinder.paymentservice.gateway;
+
+import com.braintreegateway.BraintreeGateway;
+import com.braintreegateway.Result;
+import com.braintreegateway.Transaction;
+import com.braintreegateway.TransactionRequest;
+import com.braintreegateway.WebhookNotification;
+import com.braintreegateway.exceptions.BraintreeException;
+import com.braintreegateway.exceptions.InvalidChallengeException;
+import com.braintreegateway.exceptions.InvalidSignatureException;
+import com.dealsfinder.paymentservice.exception.InvalidPaymentRequestException;
+import com.dealsfinder.paymentservice.exception.PaymentGatewayException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+@Component
+@Profile("!gateway-sim")
+@RequiredArgsConstructor
+public class BraintreePaymentGateway implements PaymentGateway {
+
+    private final BraintreeGateway braintreeGateway;
+
+    @Override
+    public ChargeResult sale(BigDecimal amount, String paymentMethodNonce) {
+        TransactionRequest transactionRequest = new TransactionRequest()
+                .amount(amount)
+                .paymentMethodNonce(paymentMethodNonce)
+                .options()
+                .submitForSettlement(true)
+                .done();
+
+        Result<Transaction> result;
+        try {
+            result = braintreeGateway.transaction().sale(transactionRequest);
+        } catch (BraintreeException e) {
+            throw new PaymentGatewayException("Payment gateway unavailable: " + e.getClass().getSimpleName());
+        }
+
+        if (!result.isSuccess()) {
+            Transaction declined = result.getTransaction();
+            return ChargeResult.builder()
+                    .success(false)
+                    .transactionId(declined != null ? declined.getId() : null)
+                    .status(declined != null ? declined.getStatus().toString() : null)
+                    .message(result.getMessage())
+                    .build();
+        }
+
+        Transaction transaction = result.getTarget();
+        return ChargeResult.builder()
+                .success(true)
+                .transactionId(transaction.getId())
+                .status(transaction.getStatus().toString())
+                .amount(transaction.getAmount())
+                .currencyIsoCode(transaction.getCurrencyIsoCode())
+                .paymentInstrumentType(transaction.getPaymentInstrumentType())
+                .build();
+    }
+
+    @Override
+    public SettlementNotification parseWebhook(String signature, String payload) {
+        WebhookNotification notification;
+        try {
+            notification = braintreeGateway.webhookNotification().parse(signature, payload);
+        } catch (InvalidSignatureException | InvalidChallengeException e) {
+            throw new InvalidPaymentRequestException("Invalid webhook signature.");
+        }
+
+        LocalDateTime occurredAt = LocalDateTime.ofInstant(notification.getTimestamp().toInstant(), ZoneId.systemDefault());
+        return switch (notification.getKind()) {
+            case TRANSACTION_SETTLED, TRANSACTION_SETTLEMENT_DECLINED -> new SettlementNotification(
+                    notification.getTransaction().getId(), notification.getTransaction().getStatus().toString(), occurredAt);
+            case DISPUTE_OPENED, DISPUTE_LOST, DISPUTE_WON, DISPUTE_ACCEPTED, DISPUTE_EXPIRED -> new SettlementNotification(
+                    notification.getDispute().getTransaction().getId(), "DISPUTE_" + notification.getDispute().getStatus(), occurredAt);
+            default -> null;
+        };
+    }
+
+    // Signed sample webhook (bt_signature / bt_payload form fields). Only SimulatedPaymentGateway uses it, with
+    // throwaway keys: signed with the real private key it would be a forged webhook our endpoint accepts.
+    Map<String, String> sampleWebhook(String kind, String transactionId) {
+        WebhookNotification.Kind webhookKind;
+        try {
+            webhookKind = WebhookNotification.Kind.valueOf(kind.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPaymentRequestException("Unknown webhook kind: " + kind);
+        }
+        return braintreeGateway.webhookTesting().sampleNotification(webhookKind, transactionId);
+    }
+}
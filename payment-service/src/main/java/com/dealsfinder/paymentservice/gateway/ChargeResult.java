@@ -0,0 +1,22 @@
+package com.dealsfinder.paymentservice.gateway;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChargeResult {
+    private boolean success;
+    private String transactionId;
+    private String status;
+    private BigDecimal amount;
+    private String currencyIsoCode;
+    private String paymentInstrumentType;
+    private String message;
+}
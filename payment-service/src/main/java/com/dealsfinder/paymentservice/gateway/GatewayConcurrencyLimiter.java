@@ -0,0 +1,135 @@
+package com.dealsfinder.paymentservice.gateway;
+
+import com.dealsfinder.paymentservice.exception.CheckoutRejectedException;
+import com.dealsfinder.paymentservice.exception.PaymentGatewayException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Caps concurrent gateway calls with a limit that follows the provider's latency (gradient algorithm):
+// while calls are as fast as the long-run baseline the limit grows, when they slow down it shrinks,
+// and calls over the limit are rejected immediately instead of tying up request threads.
+@Component
+public class GatewayConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayConcurrencyLimiter.class);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final int longWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejections;
+
+    private volatile double limit;
+    private double longRttNanos;
+    private long samples;
+
+    public GatewayConcurrencyLimiter(MeterRegistry meterRegistry,
+                                     @Value("${gateway.limiter.initial-limit}") int initialLimit,
+                                     @Value("${gateway.limiter.min-limit}") int minLimit,
+                                     @Value("${gateway.limiter.max-limit}") int maxLimit,
+                                     @Value("${gateway.limiter.rtt-tolerance}") double rttTolerance,
+                                     @Value("${gateway.limiter.smoothing}") double smoothing,
+                                     @Value("${gateway.limiter.backoff-ratio}") double backoffRatio,
+                                     @Value("${gateway.limiter.long-window}") int longWindow) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.backoffRatio = backoffRatio;
+        this.longWindow = longWindow;
+
+        Gauge.builder("payment.gateway.limit", this, GatewayConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for payment gateway calls")
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.inflight", inFlight, AtomicInteger::get)
+                .description("Payment gateway calls in progress")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("payment.gateway.rejected")
+                .description("Payment gateway calls rejected because the limit was reached")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        int current = acquire();
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            onSample(System.nanoTime() - start, current);
+            return result;
+        } catch (PaymentGatewayException e) {
+            // Errors and timeouts mean the provider is struggling: back off multiplicatively
+            onDrop();
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private int acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejections.increment();
+                throw new CheckoutRejectedException("Payment gateway is busy, please retry shortly.");
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        samples++;
+        // Long-run baseline: plain average while warming up, then an exponential average over ~longWindow samples
+        double weight = samples < longWindow ? 1.0 / samples : 2.0 / (longWindow + 1);
+        longRttNanos += (rttNanos - longRttNanos) * weight;
+
+        // Let the baseline recover quickly after a brownout instead of staying inflated
+        if (longRttNanos / rttNanos > 2.0) {
+            longRttNanos *= 0.95;
+        }
+
+        // Only grow when the limit is actually being used, otherwise it drifts up without evidence
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        update(limit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private synchronized void onDrop() {
+        update(limit * backoffRatio);
+    }
+
+    private void update(double newLimit) {
+        double clamped = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        if ((int) clamped != (int) limit) {
+            log.debug("Payment gateway limit {} -> {}", (int) limit, (int) clamped);
+        }
+        limit = clamped;
+    }
+}
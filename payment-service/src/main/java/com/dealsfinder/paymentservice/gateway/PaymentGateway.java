@@ -0,0 +1,15 @@
+package com.dealsfinder.paymentservice.gateway;
+
+import java.math.BigDecimal;
+
+// Card processor used by checkout. Braintree in normal runs, SimulatedPaymentGateway under the "gateway-sim" profile.
+public interface PaymentGateway {
+
+    // Charges the nonce and submits for settlement. A decline comes back as an unsuccessful result;
+    // an unreachable or failing provider throws PaymentGatewayException.
+    ChargeResult sale(BigDecimal amount, String paymentMethodNonce);
+
+    // Verifies and decodes a settlement/dispute webhook. Returns null for kinds that do not change a payment's status;
+    // a bad signature throws InvalidPaymentRequestException.
+    SettlementNotification parseWebhook(String signature, String payload);
+}
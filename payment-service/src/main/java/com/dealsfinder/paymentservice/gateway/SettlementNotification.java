@@ -0,0 +1,15 @@
+package com.dealsfinder.paymentservice.gateway;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// A verified webhook reduced to the status change it implies for one of our payments
+@Data
+@AllArgsConstructor
+public class SettlementNotification {
+    private String transactionId;
+    private String status;
+    private LocalDateTime occurredAt;
+}
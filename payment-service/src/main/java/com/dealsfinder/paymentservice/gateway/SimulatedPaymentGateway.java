@@ -0,0 +1,155 @@
+package com.dealsfinder.paymentservice.gateway;
+
+import com.braintreegateway.BraintreeGateway;
+import com.braintreegateway.Environment;
+import com.braintreegateway.PaymentInstrumentType;
+import com.braintreegateway.Transaction;
+import com.dealsfinder.paymentservice.exception.PaymentGatewayException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+// In-process stand-in for Braintree so checkout can be load-tested offline (profile "gateway-sim").
+// Outcomes follow the sandbox test nonces, e.g. fake-valid-nonce, fake-processor-declined-visa-nonce,
+// fake-gateway-rejected-kount-verification-nonce; random declines/errors and latency are configurable.
+@Component
+@Profile("gateway-sim")
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulatedPaymentGateway.class);
+
+    private static final char[] ID_CHARS = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    // z-score of the 99th percentile, used to turn (median, p99) into a log-normal sigma
+    private static final double Z_99 = 2.326;
+
+    // Webhook signing and parsing are local HMAC operations, so an offline Braintree client with
+    // throwaway keys gives webhooks in exactly the production format
+    private final BraintreePaymentGateway webhooks = new BraintreePaymentGateway(
+            new BraintreeGateway(Environment.DEVELOPMENT, "sim_merchant", "sim_public_key", "sim_private_key"));
+
+    private final Pattern declinePattern;
+    private final Pattern rejectPattern;
+    private final Pattern errorPattern;
+
+    @Value("${gateway.sim.decline-rate}")
+    private double declineRate;
+
+    @Value("${gateway.sim.error-rate}")
+    private double errorRate;
+
+    @Value("${gateway.sim.currency}")
+    private String currency;
+
+    @Value("${gateway.sim.latency.distribution}")
+    private String latencyDistribution;
+
+    @Value("${gateway.sim.latency.median-ms}")
+    private double medianMs;
+
+    @Value("${gateway.sim.latency.p99-ms}")
+    private double p99Ms;
+
+    @Value("${gateway.sim.latency.min-ms}")
+    private double minMs;
+
+    @Value("${gateway.sim.latency.max-ms}")
+    private double maxMs;
+
+    public SimulatedPaymentGateway(@Value("${gateway.sim.decline-nonce-pattern}") String declinePattern,
+                                   @Value("${gateway.sim.reject-nonce-pattern}") String rejectPattern,
+                                   @Value("${gateway.sim.error-nonce-pattern}") String errorPattern) {
+        this.declinePattern = Pattern.compile(declinePattern);
+        this.rejectPattern = Pattern.compile(rejectPattern);
+        this.errorPattern = Pattern.compile(errorPattern);
+        log.warn("⚠️ Simulated payment gateway is active, no real charges will be made");
+    }
+
+    @Override
+    public ChargeResult sale(BigDecimal amount, String paymentMethodNonce) {
+        sleep(nextLatencyMs());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (errorPattern.matcher(paymentMethodNonce).matches() || random.nextDouble() < errorRate) {
+            throw new PaymentGatewayException("Payment gateway unavailable: ServiceUnavailableException");
+        }
+        if (rejectPattern.matcher(paymentMethodNonce).matches()) {
+            return declined(Transaction.Status.GATEWAY_REJECTED, "Gateway Rejected: fraud");
+        }
+        if (declinePattern.matcher(paymentMethodNonce).matches() || random.nextDouble() < declineRate) {
+            return declined(Transaction.Status.PROCESSOR_DECLINED, "Do Not Honor");
+        }
+
+        return ChargeResult.builder()
+                .success(true)
+                .transactionId(nextTransactionId())
+                .status(Transaction.Status.SUBMITTED_FOR_SETTLEMENT.toString())
+                .amount(amount)
+                .currencyIsoCode(currency)
+                .paymentInstrumentType(PaymentInstrumentType.CREDIT_CARD)
+                .build();
+    }
+
+    @Override
+    public SettlementNotification parseWebhook(String signature, String payload) {
+        return webhooks.parseWebhook(signature, payload);
+    }
+
+    // Signed sample webhook (bt_signature / bt_payload form fields) for local testing
+    public Map<String, String> sampleWebhook(String kind, String transactionId) {
+        return webhooks.sampleWebhook(kind, transactionId);
+    }
+
+    private ChargeResult declined(Transaction.Status status, String message) {
+        return ChargeResult.builder()
+                .success(false)
+                .transactionId(nextTransactionId())
+                .status(status.toString())
+                .message(message)
+                .build();
+    }
+
+    long nextLatencyMs() {
+        // "none" means no delay at all, not min-ms
+        if ("none".equals(latencyDistribution)) {
+            return 0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double latency = switch (latencyDistribution) {
+            case "fixed" -> medianMs;
+            case "uniform" -> minMs + random.nextDouble() * (maxMs - minMs);
+            // Long-tailed like real network calls: half the calls take under the median, 1% over p99
+            case "lognormal" -> medianMs * Math.exp(random.nextGaussian() * Math.log(p99Ms / medianMs) / Z_99);
+            default -> throw new IllegalStateException("Unknown gateway.sim.latency.distribution: " + latencyDistribution);
+        };
+        return Math.round(Math.min(Math.max(latency, minMs), maxMs));
+    }
+
+    // Braintree transaction ids are 8 lowercase alphanumerics
+    private String nextTransactionId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] id = new char[8];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = ID_CHARS[random.nextInt(ID_CHARS.length)];
+        }
+        return new String(id);
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Payment gateway call interrupted");
+        }
+    }
+}
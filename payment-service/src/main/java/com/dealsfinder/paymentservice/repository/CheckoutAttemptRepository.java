@@ -0,0 +1,7 @@
+package com.dealsfinder.paymentservice.repository;
+
+import com.dealsfinder.paymentservice.entity.CheckoutAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CheckoutAttemptRepository extends JpaRepository<CheckoutAttempt, String> {
+}
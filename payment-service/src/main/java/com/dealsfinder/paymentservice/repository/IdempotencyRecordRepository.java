@@ -0,0 +1,24 @@
+package com.dealsfinder.paymentservice.repository;
+
+import com.dealsfinder.paymentservice.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    // Conditional, so of two requests finding the same lapsed claim only one gets it
+    @Modifying
+    @Query("update IdempotencyRecord r set r.requestHash = :requestHash, r.createdAt = :now, r.expiresAt = :leaseUntil "
+            + "where r.id = :id and r.status = :status and r.expiresAt <= :now")
+    int takeOverStale(@Param("id") String id, @Param("requestHash") String requestHash,
+                      @Param("status") IdempotencyRecord.Status status, @Param("now") LocalDateTime now,
+                      @Param("leaseUntil") LocalDateTime leaseUntil);
+}
@@ -0,0 +1,30 @@
+package com.dealsfinder.paymentservice.repository;
+
+import com.dealsfinder.paymentservice.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // SKIP LOCKED lets several payment-service instances drain the outbox without double-publishing
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.status = :status order by e.id")
+    List<OutboxEvent> lockBatch(@Param("status") OutboxEvent.Status status, Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.sentAt = :sentAt where e.id in :ids")
+    int markAs(@Param("status") OutboxEvent.Status status, @Param("sentAt") LocalDateTime sentAt,
+               @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = :status and e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("status") OutboxEvent.Status status, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,10 +1,53 @@
 package com.dealsfinder.paymentservice.repository;
 
+import com.dealsfinder.paymentservice.dto.PaymentHistoryItem;
+import com.dealsfinder.paymentservice.dto.RevenueByDay;
+import com.dealsfinder.paymentservice.dto.RevenueByDeal;
+import com.dealsfinder.paymentservice.dto.RevenueByUser;
 import com.dealsfinder.paymentservice.entity.PaymentTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface PaymentTransactionRepository extends JpaRepository<PaymentTransaction, String> {
-    List<PaymentTransaction> findByUserEmail(String userEmail);
+    // Newest first, keyset-paged on (createdAt, transactionId) so deep pages cost the same as the first one.
+    // Served by idx_payment_user_created; null filters are ignored.
+    @Query("select new com.dealsfinder.paymentservice.dto.PaymentHistoryItem(p.transactionId, p.dealId, p.status, p.amountMinor, p.currency, p.paymentMethod, p.createdAt) " +
+            "from PaymentTransaction p where p.userEmail = :userEmail " +
+            "and (:from is null or p.createdAt >= :from) and (:to is null or p.createdAt < :to) " +
+            "and (:status is null or p.status = :status) " +
+            "and (:afterCreatedAt is null or p.createdAt < :afterCreatedAt " +
+            "or (p.createdAt = :afterCreatedAt and p.transactionId < :afterId)) " +
+            "order by p.createdAt desc, p.transactionId desc")
+    List<PaymentHistoryItem> findHistory(@Param("userEmail") String userEmail,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("status") String status,
+                                         @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                         @Param("afterId") String afterId,
+                                         Pageable pageable);
+
+    // Revenue reports are aggregated by the database; only one row per group comes back
+    @Query("select new com.dealsfinder.paymentservice.dto.RevenueByDay(cast(p.createdAt as LocalDate), p.currency, count(p), sum(p.amountMinor)) " +
+            "from PaymentTransaction p where p.createdAt >= :from and p.createdAt < :to " +
+            "group by cast(p.createdAt as LocalDate), p.currency order by cast(p.createdAt as LocalDate)")
+    List<RevenueByDay> revenueByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select new com.dealsfinder.paymentservice.dto.RevenueByDeal(p.dealId, p.currency, count(p), sum(p.amountMinor)) " +
+            "from PaymentTransaction p where p.createdAt >= :from and p.createdAt < :to " +
+            "group by p.dealId, p.currency order by sum(p.amountMinor) desc")
+    List<RevenueByDeal> revenueByDeal(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+
+    @Query("select new com.dealsfinder.paymentservice.dto.RevenueByUser(p.userEmail, p.currency, count(p), sum(p.amountMinor)) " +
+            "from PaymentTransaction p where p.createdAt >= :from and p.createdAt < :to " +
+            "group by p.userEmail, p.currency order by sum(p.amountMinor) desc")
+    List<RevenueByUser> revenueByUser(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+
+    @Query("select p.transactionId from PaymentTransaction p where p.transactionId in :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
 }
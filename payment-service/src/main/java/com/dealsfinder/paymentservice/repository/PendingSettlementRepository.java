@@ -0,0 +1,25 @@
+package com.dealsfinder.paymentservice.repository;
+
+import com.dealsfinder.paymentservice.entity.PendingSettlement;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PendingSettlementRepository extends JpaRepository<PendingSettlement, Long> {
+
+    // SKIP LOCKED lets several payment-service instances apply settlements without taking the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select s from PendingSettlement s where s.nextAttemptAt <= :now order by s.nextAttemptAt, s.id")
+    List<PendingSettlement> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("delete from PendingSettlement s where s.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
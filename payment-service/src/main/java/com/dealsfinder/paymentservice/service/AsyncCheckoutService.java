@@ -0,0 +1,106 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.paymentservice.dto.PaymentRequestDto;
+import com.dealsfinder.paymentservice.entity.CheckoutAttempt;
+import com.dealsfinder.paymentservice.entity.PaymentTransaction;
+import com.dealsfinder.paymentservice.exception.CheckoutRejectedException;
+import com.dealsfinder.paymentservice.exception.PaymentGatewayException;
+import com.dealsfinder.paymentservice.exception.PaymentNotRecordedException;
+import com.dealsfinder.paymentservice.repository.CheckoutAttemptRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class AsyncCheckoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncCheckoutService.class);
+
+    private final CheckoutAttemptRepository checkoutAttemptRepository;
+    private final CheckoutService checkoutService;
+    private final AsyncTaskExecutor checkoutExecutor;
+
+    public AsyncCheckoutService(CheckoutAttemptRepository checkoutAttemptRepository,
+                                CheckoutService checkoutService,
+                                @Qualifier("checkoutExecutor") AsyncTaskExecutor checkoutExecutor) {
+        this.checkoutAttemptRepository = checkoutAttemptRepository;
+        this.checkoutService = checkoutService;
+        this.checkoutExecutor = checkoutExecutor;
+    }
+
+    public CheckoutAttempt submit(PaymentRequestDto request) {
+        LocalDateTime now = LocalDateTime.now();
+        CheckoutAttempt attempt = checkoutAttemptRepository.save(CheckoutAttempt.builder()
+                .paymentId(UUID.randomUUID().toString())
+                .userEmail(request.getUserEmail())
+                .dealId(request.getDealId())
+                .amount(request.getAmount())
+                .status(CheckoutAttempt.Status.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        try {
+            checkoutExecutor.execute(() -> run(attempt, request));
+        } catch (TaskRejectedException e) {
+            checkoutAttemptRepository.delete(attempt);
+            throw new CheckoutRejectedException("Checkout is busy, please retry shortly.");
+        }
+        return attempt;
+    }
+
+    public Optional<CheckoutAttempt> findById(String paymentId) {
+        return checkoutAttemptRepository.findById(paymentId);
+    }
+
+    private void run(CheckoutAttempt attempt, PaymentRequestDto request) {
+        update(attempt, CheckoutAttempt.Status.PROCESSING, null, null);
+        try {
+            PaymentTransaction payment = checkoutService.checkout(request);
+            finish(attempt, CheckoutAttempt.Status.SUCCEEDED, payment.getTransactionId(), "Transaction successful.");
+        } catch (CheckoutRejectedException e) {
+            finish(attempt, CheckoutAttempt.Status.FAILED, null, e.getMessage());
+        } catch (PaymentNotRecordedException e) {
+            // Keep the transaction id: support needs it to reconcile the charge
+            finish(attempt, CheckoutAttempt.Status.FAILED, e.getTransactionId(),
+                    e.getMessage() + ". Please contact support instead of retrying.");
+        } catch (PaymentGatewayException e) {
+            finish(attempt, CheckoutAttempt.Status.FAILED, null, "Error: " + e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("❌ Async checkout {} failed: {}", attempt.getPaymentId(), e.getMessage(), e);
+            finish(attempt, CheckoutAttempt.Status.FAILED, null, "Payment processing failed: " + e.getMessage());
+        }
+    }
+
+    // The outcome must land even if its message cannot, or the attempt reads PROCESSING forever
+    private void finish(CheckoutAttempt attempt, CheckoutAttempt.Status status, String transactionId, String message) {
+        try {
+            update(attempt, status, transactionId, message);
+        } catch (RuntimeException e) {
+            log.error("❌ Could not record outcome of checkout {}, retrying without its message", attempt.getPaymentId(), e);
+            try {
+                update(attempt, status, transactionId, null);
+            } catch (RuntimeException retryFailure) {
+                log.error("❌ Checkout {} is stuck in PROCESSING: outcome {} could not be recorded",
+                        attempt.getPaymentId(), status, retryFailure);
+            }
+        }
+    }
+
+    private void update(CheckoutAttempt attempt, CheckoutAttempt.Status status, String transactionId, String message) {
+        attempt.setStatus(status);
+        attempt.setTransactionId(transactionId);
+        // Exception messages can be arbitrarily long; the column is not
+        attempt.setMessage(message != null && message.length() > CheckoutAttempt.MESSAGE_LENGTH
+                ? message.substring(0, CheckoutAttempt.MESSAGE_LENGTH) : message);
+        attempt.setUpdatedAt(LocalDateTime.now());
+        checkoutAttemptRepository.save(attempt);
+    }
+}
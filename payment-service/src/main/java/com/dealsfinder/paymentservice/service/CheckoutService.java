@@ -0,0 +1,126 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.dealservice.model.Deal;
+import com.dealsfinder.paymentservice.dto.PaymentRequestDto;
+import com.dealsfinder.paymentservice.entity.PaymentTransaction;
+import com.dealsfinder.paymentservice.exception.DealLookupException;
+import com.dealsfinder.paymentservice.exception.InvalidPaymentRequestException;
+import com.dealsfinder.paymentservice.exception.PaymentDeclinedException;
+import com.dealsfinder.paymentservice.exception.PaymentNotRecordedException;
+import com.dealsfinder.paymentservice.gateway.ChargeResult;
+import com.dealsfinder.paymentservice.gateway.GatewayConcurrencyLimiter;
+import com.dealsfinder.paymentservice.gateway.PaymentGateway;
+import com.dealsfinder.paymentservice.util.Money;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@RequiredArgsConstructor
+public class CheckoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutService.class);
+
+    private final PaymentGateway paymentGateway;
+    private final GatewayConcurrencyLimiter gatewayLimiter;
+    private final PaymentService paymentService;
+    private final DealCatalog dealCatalog;
+
+    @Value("${deal.lookup.timeout-ms}")
+    private long dealLookupTimeoutMs;
+
+    @Value("${payments.currency}")
+    private String defaultCurrency;
+
+    // Charges the card and records the payment. Shared by the synchronous and async checkout endpoints.
+    public PaymentTransaction checkout(PaymentRequestDto request) {
+        // The deal lookup runs while the request is validated, and both finish before the card is charged
+        CompletableFuture<Deal> dealLookup = dealCatalog.getDeal(request.getDealId());
+        validate(request);
+        Deal deal = awaitDeal(dealLookup, request.getDealId());
+        validateDeal(deal, request);
+
+        ChargeResult charge = gatewayLimiter.execute(() ->
+                paymentGateway.sale(new BigDecimal(request.getAmount()), request.getPaymentMethodNonce()));
+        if (!charge.isSuccess()) {
+            throw new PaymentDeclinedException(charge.getMessage());
+        }
+
+        String currency = charge.getCurrencyIsoCode() != null ? charge.getCurrencyIsoCode() : defaultCurrency;
+        PaymentTransaction paymentRecord = PaymentTransaction.builder()
+                .transactionId(charge.getTransactionId())
+                .status(charge.getStatus())
+                .amountMinor(Money.toMinorUnits(charge.getAmount(), currency))
+                .currency(currency)
+                .paymentMethod(charge.getPaymentInstrumentType())
+                .createdAt(LocalDateTime.now())
+                .userEmail(request.getUserEmail())
+                .dealId(request.getDealId())
+                .dealCategory(deal.getCategory())
+                .build();
+
+        try {
+            return paymentService.processPayment(paymentRecord);
+        } catch (RuntimeException e) {
+            // Past this point the money has moved: callers must not treat the failure as retryable
+            log.error("❌ Payment {} was charged but could not be recorded: {}", charge.getTransactionId(), e.getMessage(), e);
+            throw new PaymentNotRecordedException(charge.getTransactionId(), e);
+        }
+    }
+
+    public void validate(PaymentRequestDto request) {
+        if (request.getAmount() == null || parseAmount(request.getAmount()).compareTo(BigDecimal.ZERO) <= 0) {
+            throw new InvalidPaymentRequestException("Invalid amount.");
+        }
+
+        if (request.getPaymentMethodNonce() == null || request.getPaymentMethodNonce().isEmpty()) {
+            throw new InvalidPaymentRequestException("Missing payment method nonce.");
+        }
+    }
+
+    private void validateDeal(Deal deal, PaymentRequestDto request) {
+        if (!deal.isActive()) {
+            throw new InvalidPaymentRequestException("Deal is inactive for dealId: " + request.getDealId());
+        }
+        // Deals without a price configured cannot be checked, only priced deals are enforced
+        if (deal.getPrice() > 0
+                && BigDecimal.valueOf(deal.getPrice()).compareTo(new BigDecimal(request.getAmount())) != 0) {
+            throw new InvalidPaymentRequestException("Amount " + request.getAmount()
+                    + " does not match the price of dealId " + request.getDealId());
+        }
+    }
+
+    // Anything but a definite "no such deal" is a DealLookupException: nothing has been charged yet, so it is retryable
+    private Deal awaitDeal(CompletableFuture<Deal> dealLookup, long dealId) {
+        try {
+            return dealLookup.get(dealLookupTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof InvalidPaymentRequestException || e.getCause() instanceof DealLookupException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DealLookupException("Deal validation failed: " + e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            throw new DealLookupException("Deal validation timed out for dealId: " + dealId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DealLookupException("Deal validation interrupted for dealId: " + dealId);
+        }
+    }
+
+    private BigDecimal parseAmount(String amount) {
+        try {
+            return new BigDecimal(amount);
+        } catch (NumberFormatException e) {
+            throw new InvalidPaymentRequestException("Invalid amount.");
+        }
+    }
+}
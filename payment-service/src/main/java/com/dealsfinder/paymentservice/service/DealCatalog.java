@@ -0,0 +1,80 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.dealservice.model.Deal;
+import com.dealsfinder.paymentservice.client.DealClient;
+import com.dealsfinder.paymentservice.exception.DealLookupException;
+import com.dealsfinder.paymentservice.exception.InvalidPaymentRequestException;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+// Short-TTL local view of deal-service. Concurrent checkouts for the same deal share one in-flight
+// lookup, and failed lookups are dropped right away so the next checkout retries.
+@Service
+public class DealCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(DealCatalog.class);
+
+    private final DealClient dealClient;
+    private final ExecutorService dealLookupExecutor;
+    private final ConcurrentHashMap<Long, CachedDeal> cache = new ConcurrentHashMap<>();
+
+    @Value("${deal.cache.ttl-ms}")
+    private long ttlMs;
+
+    @Value("${deal.cache.max-entries}")
+    private int maxEntries;
+
+    public DealCatalog(DealClient dealClient, @Qualifier("dealLookupExecutor") ExecutorService dealLookupExecutor) {
+        this.dealClient = dealClient;
+        this.dealLookupExecutor = dealLookupExecutor;
+    }
+
+    public CompletableFuture<Deal> getDeal(long dealId) {
+        long now = System.currentTimeMillis();
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(entry -> entry.expiresAt() <= now);
+        }
+
+        CachedDeal entry = cache.compute(dealId, (id, existing) ->
+                existing != null && existing.expiresAt() > now
+                        ? existing
+                        : new CachedDeal(CompletableFuture.supplyAsync(() -> fetch(id), dealLookupExecutor), now + ttlMs));
+
+        entry.deal().whenComplete((deal, error) -> {
+            if (error != null) {
+                cache.remove(dealId, entry);
+            }
+        });
+        return entry.deal();
+    }
+
+    private Deal fetch(long dealId) {
+        try {
+            log.info("Fetching deal for dealId: {}", dealId);
+            Deal deal = dealClient.getDealById(dealId);
+            if (deal == null) {
+                throw new InvalidPaymentRequestException("Deal not found for dealId: " + dealId);
+            }
+            return deal;
+        } catch (FeignException.NotFound e) {
+            throw new InvalidPaymentRequestException("Deal not found for dealId: " + dealId);
+        } catch (FeignException.Forbidden e) {
+            log.error("❌ Forbidden (403) when accessing deal service for dealId {}: {}", dealId, e.getMessage(), e);
+            throw new DealLookupException("Access to deal service forbidden. Ensure valid JWT token is provided.");
+        } catch (FeignException e) {
+            log.error("❌ Feign client error when accessing deal service for dealId {}: {}", dealId, e.getMessage(), e);
+            throw new DealLookupException("Failed to validate deal: " + e.getMessage());
+        }
+    }
+
+    private record CachedDeal(CompletableFuture<Deal> deal, long expiresAt) {
+    }
+}
@@ -0,0 +1,254 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.paymentservice.dto.PaymentRequestDto;
+import com.dealsfinder.paymentservice.entity.IdempotencyRecord;
+import com.dealsfinder.paymentservice.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Two-tier Idempotency-Key store for checkout: completed responses are kept in a local LRU for hot
+// retries and in the idempotency_record table (with a TTL) so they survive restarts and other instances.
+// A key being worked on is held by a short lease, so a crashed instance does not block it for the whole TTL.
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, StoredResponse> recent;
+
+    @Value("${idempotency.ttl-hours}")
+    private long ttlHours;
+
+    @Value("${idempotency.wait-timeout-ms}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.in-progress-lease-ms}")
+    private long inProgressLeaseMs;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${idempotency.cache-size}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public ResponseEntity<String> execute(String idempotencyKey, String userEmail, PaymentRequestDto request,
+                                          Supplier<ResponseEntity<String>> action) {
+        String id = sha256(userEmail + ":" + idempotencyKey);
+        String requestHash = sha256(request.getPaymentMethodNonce() + "|" + request.getAmount() + "|"
+                + request.getUserEmail() + "|" + request.getDealId());
+
+        // 1. Hot retry of a request this instance has already finished
+        StoredResponse cached = recent.get(id);
+        if (cached != null && cached.expiresAt().isAfter(LocalDateTime.now())) {
+            return replay(cached, requestHash);
+        }
+
+        // 2. Duplicate of a request still running on this instance: wait for it instead of charging again
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return awaitRunning(running, requestHash);
+        }
+
+        try {
+            // 3. Finished or running elsewhere, according to the shared store
+            Optional<StoredResponse> stored;
+            try {
+                stored = claim(id, requestHash);
+            } catch (KeyInProgressException e) {
+                mine.completeExceptionally(e);
+                return inProgress();
+            }
+            if (stored.isPresent()) {
+                mine.complete(stored.get());
+                return replay(stored.get(), requestHash);
+            }
+
+            // 4. First time we see this key: run the checkout and remember the outcome
+            ResponseEntity<String> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                // The card may or may not have been charged, so the key must not be reused
+                log.error("❌ Checkout for an idempotent request failed: {}", e.getMessage(), e);
+                response = ResponseEntity.status(500).body("Payment processing failed: " + e.getMessage());
+            }
+            if (chargedNothing(response)) {
+                // Free the key so the client can retry for real
+                idempotencyRecordRepository.deleteById(id);
+                mine.complete(toStoredResponse(requestHash, response, LocalDateTime.now()));
+                return response;
+            }
+            mine.complete(complete(id, requestHash, response));
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("🧹 Purged {} expired idempotency key(s)", deleted);
+        }
+    }
+
+    // Validation (400) and deal-lookup or busy-gateway (503) failures are the only responses sent before the
+    // card is charged; anything else, including a decline or a charge that could not be recorded, is final
+    private static boolean chargedNothing(ResponseEntity<String> response) {
+        int status = response.getStatusCode().value();
+        return status == 400 || status == 503;
+    }
+
+    // For an IN_PROGRESS row expiresAt is the claim's lease rather than the TTL
+    private Optional<StoredResponse> claim(String id, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(id);
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (record.getStatus() == IdempotencyRecord.Status.IN_PROGRESS) {
+                if (record.getExpiresAt().isAfter(now)) {
+                    throw new KeyInProgressException();
+                }
+                // The instance holding the claim died mid-request: take it over, but only if nobody else just did
+                Integer taken = transactionTemplate.execute(status -> idempotencyRecordRepository.takeOverStale(id,
+                        requestHash, IdempotencyRecord.Status.IN_PROGRESS, now, now.plus(inProgressLeaseMs, ChronoUnit.MILLIS)));
+                if (taken == null || taken == 0) {
+                    throw new KeyInProgressException();
+                }
+                log.warn("⚠️ Took over a stale idempotency claim left by another request");
+                return Optional.empty();
+            }
+            if (record.getExpiresAt().isAfter(now)) {
+                StoredResponse stored = toStoredResponse(record);
+                recent.put(id, stored);
+                return Optional.of(stored);
+            }
+            idempotencyRecordRepository.delete(record);
+        }
+
+        try {
+            idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                    .id(id)
+                    .requestHash(requestHash)
+                    .status(IdempotencyRecord.Status.IN_PROGRESS)
+                    .createdAt(now)
+                    .expiresAt(now.plus(inProgressLeaseMs, ChronoUnit.MILLIS))
+                    .build());
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            // Another instance claimed the key between our read and insert
+            throw new KeyInProgressException();
+        }
+    }
+
+    private StoredResponse complete(String id, String requestHash, ResponseEntity<String> response) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .id(id)
+                .requestHash(requestHash)
+                .status(IdempotencyRecord.Status.COMPLETED)
+                .responseStatus(response.getStatusCode().value())
+                .responseBody(response.getBody())
+                .createdAt(now)
+                .expiresAt(now.plusHours(ttlHours))
+                .newRecord(false)
+                .build();
+        idempotencyRecordRepository.save(record);
+
+        StoredResponse stored = toStoredResponse(record);
+        recent.put(id, stored);
+        return stored;
+    }
+
+    private StoredResponse toStoredResponse(String requestHash, ResponseEntity<String> response, LocalDateTime expiresAt) {
+        return new StoredResponse(requestHash, response.getStatusCode().value(), response.getBody(), expiresAt);
+    }
+
+    private ResponseEntity<String> awaitRunning(CompletableFuture<StoredResponse> running, String requestHash) {
+        try {
+            return replay(running.get(waitTimeoutMs, TimeUnit.MILLISECONDS), requestHash);
+        } catch (TimeoutException | ExecutionException e) {
+            return inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inProgress();
+        }
+    }
+
+    private ResponseEntity<String> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return ResponseEntity.unprocessableEntity()
+                    .body("Idempotency-Key was already used with a different request.");
+        }
+        return ResponseEntity.status(stored.status())
+                .header("Idempotent-Replayed", "true")
+                .body(stored.body());
+    }
+
+    private ResponseEntity<String> inProgress() {
+        return ResponseEntity.status(409)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("A request with this Idempotency-Key is still being processed.");
+    }
+
+    private StoredResponse toStoredResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getRequestHash(), record.getResponseStatus(), record.getResponseBody(),
+                record.getExpiresAt());
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int status, String body, LocalDateTime expiresAt) {
+    }
+
+    private static class KeyInProgressException extends RuntimeException {
+    }
+}
@@ -27,28 +27,76 @@
 package com.dealsfinder.paymentservice.service;
 
 import com.dealsfinder.paymentservice.config.RabbitMQConfig;
-import com.dealsfinder.paymentservice.dto.CashbackMessage;
-import com.dealsfinder.paymentservice.dto.NotificationMessage;
+import com.dealsfinder.paymentservice.entity.OutboxEvent;
+import com.rabbitmq.client.ReturnListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageBuilderSupport;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Component
 public class MessageSender {
 
+    private static final Logger log = LoggerFactory.getLogger(MessageSender.class);
+
+    static final String MESSAGE_ID_PREFIX = "payment-outbox-";
+
     private final RabbitTemplate rabbitTemplate;
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
 
     public MessageSender(RabbitTemplate rabbitTemplate) {
         this.rabbitTemplate = rabbitTemplate;
     }
 
-    public void sendNotification(NotificationMessage notification) {
-        System.out.println("📤 Sending notification to RabbitMQ: " + notification);
-        rabbitTemplate.convertAndSend(RabbitMQConfig.NOTIFICATION_QUEUE, notification);
+    // Publishes the whole batch as mandatory on one channel and waits once for the broker to confirm all of it.
+    // A confirm only means the broker took the message: one that no queue is bound for is confirmed too, after
+    // being returned. Returns the ids of those events so the caller leaves them pending.
+    // Throws if any message is nacked or the confirms time out, so the caller can leave the rows pending.
+    public Set<Long> publishConfirmed(List<OutboxEvent> events, long confirmTimeoutMs) {
+        Set<Long> unroutable = ConcurrentHashMap.newKeySet();
+        rabbitTemplate.execute(channel -> {
+            // The broker sends a message's return before its ack, so all returns are in once the confirms are
+            ReturnListener listener = channel.addReturnListener(returned ->
+                    unroutable.add(Long.parseLong(returned.getProperties().getMessageId().substring(MESSAGE_ID_PREFIX.length()))));
+            try {
+                for (OutboxEvent event : events) {
+                    Message message = toMessage(event);
+                    channel.basicPublish(event.getExchange(), event.getRoutingKey(), true,
+                            propertiesConverter.fromMessageProperties(message.getMessageProperties(), StandardCharsets.UTF_8.name()),
+                            message.getBody());
+                }
+                channel.waitForConfirmsOrDie(confirmTimeoutMs);
+            } finally {
+                channel.removeReturnListener(listener);
+            }
+            return null;
+        });
+        log.debug("📤 Published {} outbox event(s) to RabbitMQ, {} unroutable", events.size(), unroutable.size());
+        return unroutable;
     }
 
-
-    public void sendCashback(CashbackMessage cashbackMessage) {
-        System.out.println("💰 Sending cashback to RabbitMQ: " + cashbackMessage);
-        rabbitTemplate.convertAndSend(RabbitMQConfig.CASHBACK_QUEUE, cashbackMessage);
+    private Message toMessage(OutboxEvent event) {
+        MessageBuilderSupport<Message> builder = MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                // Stable across relay re-publishes of the same row, so consumers can drop redeliveries
+                .setMessageId(MESSAGE_ID_PREFIX + event.getId())
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getPayloadType());
+        if (event.getPartitionKey() != null) {
+            builder.setHeader(RabbitMQConfig.PARTITION_KEY_HEADER, event.getPartitionKey());
+        }
+        return builder.build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.paymentservice.entity.OutboxEvent;
+import com.dealsfinder.paymentservice.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MessageSender messageSender;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.relay.batch-size}")
+    private int batchSize;
+
+    @Value("${outbox.relay.confirm-timeout-ms}")
+    private long confirmTimeoutMs;
+
+    @Value("${outbox.relay.retention-hours}")
+    private long retentionHours;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms}")
+    public void relay() {
+        try {
+            // Keep draining while batches come back full so a backlog clears without waiting for the next tick
+            int published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published == batchSize);
+        } catch (Exception e) {
+            // Rows stay PENDING and are retried on the next tick; consumers must tolerate redelivery
+            log.error("❌ Outbox relay failed, will retry: {}", e.getMessage(), e);
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockBatch(OutboxEvent.Status.PENDING, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Set<Long> unroutable = messageSender.publishConfirmed(batch, confirmTimeoutMs);
+        if (!unroutable.isEmpty()) {
+            // No consumer queue is bound yet (e.g. that service is not deployed): keep the events until one is
+            log.warn("⚠️ {} outbox event(s) reached no queue and stay pending", unroutable.size());
+        }
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).filter(id -> !unroutable.contains(id)).toList();
+        if (!ids.isEmpty()) {
+            outboxEventRepository.markAs(OutboxEvent.Status.SENT, LocalDateTime.now(), ids);
+        }
+        return ids.size();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.cleanup-interval-ms}")
+    public void purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteSentBefore(OutboxEvent.Status.SENT, cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("🧹 Purged {} sent outbox event(s)", deleted);
+        }
+    }
+}
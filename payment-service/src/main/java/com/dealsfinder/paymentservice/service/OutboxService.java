@@ -0,0 +1,44 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.paymentservice.entity.OutboxEvent;
+import com.dealsfinder.paymentservice.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Jackson2JsonMessageConverter messageConverter;
+
+    // Must join the caller's transaction: the event is only visible to the relay if the business write commits
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueue(String exchange, String routingKey, Object payload) {
+        return enqueue(exchange, routingKey, payload, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueue(String exchange, String routingKey, Object payload, String partitionKey) {
+        Message message = messageConverter.toMessage(payload, new MessageProperties());
+        OutboxEvent event = OutboxEvent.builder()
+                .exchange(exchange)
+                .routingKey(routingKey)
+                .partitionKey(partitionKey)
+                .payload(new String(message.getBody(), StandardCharsets.UTF_8))
+                .payloadType((String) message.getMessageProperties().getHeaders().get(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME))
+                .status(OutboxEvent.Status.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+        return outboxEventRepository.save(event);
+    }
+}
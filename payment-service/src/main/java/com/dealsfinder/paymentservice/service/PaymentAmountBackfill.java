@@ -0,0 +1,46 @@
+package com.dealsfinder.paymentservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+// One-off migration for rows written before amounts moved to minor units: the old string column
+// is left in place by ddl-auto, so copy it into amount_minor/currency until every row is converted
+@Component
+@RequiredArgsConstructor
+public class PaymentAmountBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentAmountBackfill.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${payments.currency}")
+    private String defaultCurrency;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer legacyColumns = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns " +
+                        "where table_schema = database() and table_name = 'payment_transaction' and column_name = 'amount'",
+                Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+
+        int updated = jdbcTemplate.update(
+                "update payment_transaction set amount_minor = round(cast(amount as decimal(19, 4)) * ?), currency = ? " +
+                        "where currency is null and amount is not null",
+                BigDecimal.TEN.pow(Currency.getInstance(defaultCurrency).getDefaultFractionDigits()), defaultCurrency);
+        if (updated > 0) {
+            log.info("💱 Converted {} legacy payment amount(s) to minor units", updated);
+        }
+    }
+}
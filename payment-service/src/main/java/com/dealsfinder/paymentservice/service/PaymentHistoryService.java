@@ -0,0 +1,78 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.paymentservice.dto.PaymentHistoryItem;
+import com.dealsfinder.paymentservice.dto.PaymentHistoryPage;
+import com.dealsfinder.paymentservice.exception.InvalidPaymentRequestException;
+import com.dealsfinder.paymentservice.repository.PaymentTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class PaymentHistoryService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final PaymentTransactionRepository paymentTransactionRepository;
+
+    // [from, to] are inclusive calendar days; "after" is the opaque cursor from the previous page
+    public PaymentHistoryPage getHistory(String userEmail, LocalDate from, LocalDate to, String status,
+                                         String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidPaymentRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        LocalDateTime afterCreatedAt = null;
+        String afterId = null;
+        if (after != null && !after.isBlank()) {
+            String[] cursor = decodeCursor(after);
+            afterCreatedAt = parseCursorTime(cursor[0], after);
+            afterId = cursor[1];
+        }
+
+        List<PaymentHistoryItem> payments = paymentTransactionRepository.findHistory(
+                userEmail,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                status != null && !status.isBlank() ? status : null,
+                afterCreatedAt,
+                afterId,
+                PageRequest.of(0, limit));
+
+        String nextCursor = payments.size() == limit ? encodeCursor(payments.get(payments.size() - 1)) : null;
+        return new PaymentHistoryPage(payments, nextCursor);
+    }
+
+    private String encodeCursor(PaymentHistoryItem last) {
+        String raw = last.getCreatedAt() + "|" + last.getTransactionId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String after) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split("\\|", 2);
+            if (parts.length != 2) {
+                throw new InvalidPaymentRequestException("Invalid cursor: " + after);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPaymentRequestException("Invalid cursor: " + after);
+        }
+    }
+
+    private LocalDateTime parseCursorTime(String value, String after) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidPaymentRequestException("Invalid cursor: " + after);
+        }
+    }
+}
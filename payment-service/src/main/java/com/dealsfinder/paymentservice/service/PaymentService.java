@@ -72,17 +72,15 @@
 //}
 package com.dealsfinder.paymentservice.service;
 
-import com.dealsfinder.dealservice.model.Deal;
-import com.dealsfinder.paymentservice.client.DealClient;
-import com.dealsfinder.paymentservice.dto.CashbackMessage;
-import com.dealsfinder.paymentservice.dto.NotificationMessage;
+import com.dealsfinder.paymentservice.config.RabbitMQConfig;
+import com.dealsfinder.paymentservice.dto.PaymentCompletedEvent;
 import com.dealsfinder.paymentservice.entity.PaymentTransaction;
 import com.dealsfinder.paymentservice.repository.PaymentTransactionRepository;
-import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
@@ -91,60 +89,34 @@ public class PaymentService {
     private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
 
     private final PaymentTransactionRepository paymentRepository;
-    private final MessageSender messageSender;
-    private final DealClient dealClient;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
 
+    // The deal has already been validated by CheckoutService before the card was charged.
     public PaymentTransaction processPayment(PaymentTransaction paymentRequest) {
-        Deal deal;
-        try {
-            log.info("Fetching deal for dealId: {}", paymentRequest.getDealId());
-            deal = dealClient.getDealById(paymentRequest.getDealId());
-            log.info("Deal fetched: {}", deal);
-            if (deal == null) {
-                throw new RuntimeException("Deal not found for dealId: " + paymentRequest.getDealId());
-            }
-            if (!deal.isActive()) {
-                throw new RuntimeException("Deal is inactive for dealId: " + paymentRequest.getDealId());
-            }
-        } catch (FeignException.Forbidden e) {
-            log.error("❌ Forbidden (403) when accessing deal service for dealId {}: {}", paymentRequest.getDealId(), e.getMessage(), e);
-            throw new RuntimeException("Access to deal service forbidden. Ensure valid JWT token is provided.");
-        } catch (FeignException e) {
-            log.error("❌ Feign client error when accessing deal service for dealId {}: {}", paymentRequest.getDealId(), e.getMessage(), e);
-            throw new RuntimeException("Failed to validate deal: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("❌ Unexpected error during deal validation for dealId {}: {}", paymentRequest.getDealId(), e.getMessage(), e);
-            throw new RuntimeException("Deal validation failed: " + e.getMessage());
-        }
+        // The event goes to the outbox in the same DB transaction as the payment,
+        // and OutboxRelay publishes it once it commits.
+        return transactionTemplate.execute(status -> saveWithEvents(paymentRequest));
+    }
 
-        // Save transaction after validation
+    private PaymentTransaction saveWithEvents(PaymentTransaction paymentRequest) {
         PaymentTransaction savedPayment = paymentRepository.save(paymentRequest);
 
-        // Build and send structured notification
-        NotificationMessage notification = new NotificationMessage(
-                savedPayment.getUserEmail(),
-                "Payment Confirmation",
-                "💳 Payment of ₹" + savedPayment.getAmount() + " received. Thank you!"
-        );
-        messageSender.sendNotification(notification);
-        log.info("Notification sent: {}", notification);
-
-        // Build and send cashback message
-        CashbackMessage cashbackMessage = new CashbackMessage();
-        cashbackMessage.setUserEmail(savedPayment.getUserEmail());
-        cashbackMessage.setDealId(savedPayment.getDealId());
-
-        try {
-            double cashback = Double.parseDouble(savedPayment.getAmount()) * 0.05;
-            cashbackMessage.setCashbackAmount(cashback);
-            log.info("Calculated cashback: {}", cashback);
-        } catch (NumberFormatException e) {
-            log.error("⚠ Invalid amount format for cashback: {}", savedPayment.getAmount(), e);
-            cashbackMessage.setCashbackAmount(0.0);
-        }
-
-        messageSender.sendCashback(cashbackMessage);
-        log.info("Cashback message sent: {}", cashbackMessage);
+        // One event per payment; cashback and notification-service each consume it from their own queue
+        PaymentCompletedEvent event = PaymentCompletedEvent.builder()
+                .transactionId(savedPayment.getTransactionId())
+                .userEmail(savedPayment.getUserEmail())
+                .dealId(savedPayment.getDealId())
+                .dealCategory(savedPayment.getDealCategory())
+                .amountMinor(savedPayment.getAmountMinor())
+                .currency(savedPayment.getCurrency())
+                .amount(savedPayment.getAmount())
+                .paymentMethod(savedPayment.getPaymentMethod())
+                .completedAt(savedPayment.getCreatedAt())
+                .build();
+        outboxService.enqueue(RabbitMQConfig.PAYMENT_EXCHANGE, RabbitMQConfig.PAYMENT_COMPLETED_KEY, event,
+                savedPayment.getUserEmail());
+        log.info("📦 PaymentCompleted event queued: {}", event);
 
         return savedPayment;
     }
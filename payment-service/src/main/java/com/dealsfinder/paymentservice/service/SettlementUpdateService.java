@@ -0,0 +1,149 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.paymentservice.entity.PendingSettlement;
+import com.dealsfinder.paymentservice.gateway.SettlementNotification;
+import com.dealsfinder.paymentservice.repository.PaymentTransactionRepository;
+import com.dealsfinder.paymentservice.repository.PendingSettlementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Webhooks are written to pending_settlement before they are acknowledged, so an acked notification survives
+// a crash. Status changes are then applied in JDBC batches, so a burst of settlement notifications costs a
+// handful of round trips instead of one per payment. A notification whose payment is not there yet (the
+// webhook beat the checkout's commit) stays pending and is retried after retry-delay-ms, up to max-attempts.
+@Service
+public class SettlementUpdateService {
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementUpdateService.class);
+
+    // Older or replayed webhooks must not overwrite a newer status
+    private static final String UPDATE_STATUS_SQL = "update payment_transaction set status = ?, status_updated_at = ? " +
+            "where transaction_id = ? and (status_updated_at is null or status_updated_at <= ?)";
+
+    private final PendingSettlementRepository pendingSettlementRepository;
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${settlement.batch-size}")
+    private int batchSize;
+
+    @Value("${settlement.retry-delay-ms}")
+    private long retryDelayMs;
+
+    @Value("${settlement.max-attempts}")
+    private int maxAttempts;
+
+    public SettlementUpdateService(PendingSettlementRepository pendingSettlementRepository,
+                                   PaymentTransactionRepository paymentTransactionRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate) {
+        this.pendingSettlementRepository = pendingSettlementRepository;
+        this.paymentTransactionRepository = paymentTransactionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // False when the notification could not be stored; the webhook should then be refused so the provider retries it
+    public boolean enqueue(SettlementNotification notification) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            pendingSettlementRepository.save(PendingSettlement.builder()
+                    .transactionId(notification.getTransactionId())
+                    .status(notification.getStatus())
+                    .occurredAt(notification.getOccurredAt())
+                    .receivedAt(now)
+                    .nextAttemptAt(now)
+                    .build());
+            return true;
+        } catch (DataAccessException e) {
+            log.error("❌ Failed to store settlement update for {}: {}", notification.getTransactionId(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${settlement.flush-interval-ms}")
+    public void flush() {
+        try {
+            // Keep going while batches come back full so a burst clears without waiting for the next tick
+            Integer claimed;
+            do {
+                claimed = transactionTemplate.execute(status -> applyDue());
+            } while (claimed != null && claimed == batchSize);
+        } catch (Exception e) {
+            // Rows stay pending and are retried on the next tick
+            log.error("❌ Failed to apply settlement updates, will retry: {}", e.getMessage(), e);
+        }
+    }
+
+    private int applyDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingSettlement> batch = pendingSettlementRepository.lockDue(now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        int[] updated = Arrays.stream(jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, batch, batch.size(), (ps, pending) -> {
+            Timestamp occurredAt = Timestamp.valueOf(pending.getOccurredAt());
+            ps.setString(1, pending.getStatus());
+            ps.setTimestamp(2, occurredAt);
+            ps.setString(3, pending.getTransactionId());
+            ps.setTimestamp(4, occurredAt);
+        })).flatMapToInt(Arrays::stream).toArray();
+
+        List<Long> done = new ArrayList<>();
+        List<PendingSettlement> unmatched = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            // 0 rows: no such payment yet, or a newer status is already recorded
+            if (updated[i] == 0) {
+                unmatched.add(batch.get(i));
+            } else {
+                done.add(batch.get(i).getId());
+            }
+        }
+
+        int applied = done.size();
+        int waiting = 0;
+        if (!unmatched.isEmpty()) {
+            Set<String> existing = new HashSet<>(paymentTransactionRepository.findExistingIds(
+                    unmatched.stream().map(PendingSettlement::getTransactionId).toList()));
+            for (PendingSettlement pending : unmatched) {
+                if (existing.contains(pending.getTransactionId())) {
+                    // Superseded by a newer webhook; nothing left to apply
+                    done.add(pending.getId());
+                } else if (pending.getAttempts() + 1 >= maxAttempts) {
+                    log.warn("⚠️ Dropping settlement update {} for unknown payment {} after {} attempt(s)",
+                            pending.getStatus(), pending.getTransactionId(), pending.getAttempts() + 1);
+                    done.add(pending.getId());
+                } else {
+                    // Managed entity: the new schedule is flushed with the transaction
+                    pending.setAttempts(pending.getAttempts() + 1);
+                    pending.setNextAttemptAt(now.plus(Duration.ofMillis(retryDelayMs)));
+                    waiting++;
+                }
+            }
+        }
+
+        if (!done.isEmpty()) {
+            pendingSettlementRepository.deleteByIds(done);
+        }
+        log.info("🧾 Applied {} settlement update(s), {} waiting for their payment", applied, waiting);
+        return batch.size();
+    }
+}
@@ -0,0 +1,24 @@
+package com.dealsfinder.paymentservice.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+// Converts between decimal amounts and the integer minor units (paise, cents) stored in the DB
+public final class Money {
+
+    private Money() {
+    }
+
+    public static long toMinorUnits(BigDecimal amount, String currency) {
+        return amount.setScale(fractionDigits(currency), RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long minorUnits, String currency) {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+
+    private static int fractionDigits(String currency) {
+        return Math.max(Currency.getInstance(currency).getDefaultFractionDigits(), 0);
+    }
+}
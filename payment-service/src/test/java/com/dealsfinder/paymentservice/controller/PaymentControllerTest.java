@@ -1,21 +1,47 @@
 package com.dealsfinder.paymentservice.controller;
 
 import com.braintreegateway.*;
+import com.dealsfinder.dealservice.model.Deal;
+import com.dealsfinder.paymentservice.dto.PaymentHistoryItem;
+import com.dealsfinder.paymentservice.dto.PaymentHistoryPage;
 import com.dealsfinder.paymentservice.dto.PaymentRequestDto;
+import com.dealsfinder.paymentservice.dto.RevenueByDay;
+import com.dealsfinder.paymentservice.entity.CheckoutAttempt;
+import com.dealsfinder.paymentservice.entity.IdempotencyRecord;
 import com.dealsfinder.paymentservice.entity.PaymentTransaction;
+import com.dealsfinder.paymentservice.gateway.BraintreePaymentGateway;
+import com.dealsfinder.paymentservice.gateway.GatewayConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.dealsfinder.paymentservice.repository.IdempotencyRecordRepository;
 import com.dealsfinder.paymentservice.repository.PaymentTransactionRepository;
+import com.dealsfinder.paymentservice.service.AsyncCheckoutService;
+import com.dealsfinder.paymentservice.service.CheckoutService;
+import com.dealsfinder.paymentservice.service.DealCatalog;
+import com.dealsfinder.paymentservice.service.IdempotencyService;
+import com.dealsfinder.paymentservice.service.PaymentHistoryService;
 import com.dealsfinder.paymentservice.service.PaymentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.mockito.stubbing.Answer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -37,15 +63,39 @@ class PaymentControllerTest {
     @Mock
     private PaymentService paymentService;
 
+    @Mock
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @Mock
+    private DealCatalog dealCatalog;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
-        paymentController = new PaymentController(braintreeGateway, paymentTransactionRepository);
-        Field field = PaymentController.class.getDeclaredField("paymentService");
+        paymentController = new PaymentController(new CheckoutService(new BraintreePaymentGateway(braintreeGateway),
+                new GatewayConcurrencyLimiter(new SimpleMeterRegistry(), 20, 4, 200, 1.5, 0.2, 0.9, 600),
+                paymentService, dealCatalog),
+                paymentTransactionRepository);
+        Field field = PaymentController.class.getDeclaredField("asyncCheckoutService");
         field.setAccessible(true);
-        field.set(paymentController, paymentService);
+        field.set(paymentController, asyncCheckoutService);
+        Field idempotencyField = PaymentController.class.getDeclaredField("idempotencyService");
+        idempotencyField.setAccessible(true);
+        idempotencyField.set(paymentController, idempotencyService);
+        Field historyField = PaymentController.class.getDeclaredField("paymentHistoryService");
+        historyField.setAccessible(true);
+        historyField.set(paymentController, new PaymentHistoryService(paymentTransactionRepository));
 
         when(braintreeGateway.transaction()).thenReturn(transactionGateway);
+
+        Deal deal = new Deal();
+        deal.setId(1L);
+        deal.setActive(true);
+        deal.setPrice(100.00);
+        when(dealCatalog.getDeal(1L)).thenReturn(CompletableFuture.completedFuture(deal));
     }
 
 
@@ -58,6 +108,7 @@ class PaymentControllerTest {
         when(transaction.getId()).thenReturn("txn123");
         when(transaction.getStatus()).thenReturn(Transaction.Status.SUBMITTED_FOR_SETTLEMENT);
         when(transaction.getAmount()).thenReturn(new BigDecimal("100.00"));
+        when(transaction.getCurrencyIsoCode()).thenReturn("INR");
         when(transaction.getPaymentInstrumentType()).thenReturn("fake-card");
 
         Result<Transaction> result = mock(Result.class);
@@ -69,7 +120,7 @@ class PaymentControllerTest {
         when(paymentService.processPayment(any(PaymentTransaction.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
-        ResponseEntity<String> response = paymentController.checkout(requestDto);
+        ResponseEntity<String> response = paymentController.checkout(requestDto, null);
 
         assertEquals(200, response.getStatusCodeValue());
         assertTrue(response.getBody().contains("Transaction successful"));
@@ -78,7 +129,7 @@ class PaymentControllerTest {
     @Test
     void testCheckout_InvalidAmount() {
         PaymentRequestDto requestDto = new PaymentRequestDto("fake-nonce", "0", "user@example.com", 1L);
-        ResponseEntity<String> response = paymentController.checkout(requestDto);
+        ResponseEntity<String> response = paymentController.checkout(requestDto, null);
         assertEquals(400, response.getStatusCodeValue());
         assertTrue(response.getBody().contains("Invalid amount"));
     }
@@ -86,36 +137,221 @@ class PaymentControllerTest {
     @Test
     void testCheckout_MissingNonce() {
         PaymentRequestDto requestDto = new PaymentRequestDto("", "100.00", "user@example.com", 1L);
-        ResponseEntity<String> response = paymentController.checkout(requestDto);
+        ResponseEntity<String> response = paymentController.checkout(requestDto, null);
         assertEquals(400, response.getStatusCodeValue());
         assertTrue(response.getBody().contains("Missing payment method nonce"));
     }
 
     @Test
-    void testGetUserTransactions() {
+    void testCheckout_InactiveDealIsRejectedBeforeCharging() {
+        Deal inactive = new Deal();
+        inactive.setId(2L);
+        inactive.setActive(false);
+        when(dealCatalog.getDeal(2L)).thenReturn(CompletableFuture.completedFuture(inactive));
+
+        PaymentRequestDto requestDto = new PaymentRequestDto("fake-nonce", "100.00", "user@example.com", 2L);
+        ResponseEntity<String> response = paymentController.checkout(requestDto, null);
+
+        assertEquals(400, response.getStatusCodeValue());
+        assertTrue(response.getBody().contains("Deal is inactive"));
+        verify(transactionGateway, never()).sale(any(TransactionRequest.class));
+    }
+
+    @Test
+    void testCheckout_AmountMustMatchDealPrice() {
+        PaymentRequestDto requestDto = new PaymentRequestDto("fake-nonce", "1.00", "user@example.com", 1L);
+        ResponseEntity<String> response = paymentController.checkout(requestDto, null);
+
+        assertEquals(400, response.getStatusCodeValue());
+        assertTrue(response.getBody().contains("does not match the price"));
+        verify(transactionGateway, never()).sale(any(TransactionRequest.class));
+    }
+
+    @Test
+    void testCheckout_WithIdempotencyKeyReplaysStoredResponse() {
         Authentication authentication = mock(Authentication.class);
         when(authentication.getName()).thenReturn("user@example.com");
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        List<PaymentTransaction> mockTransactions = List.of(
-                PaymentTransaction.builder()
-                        .transactionId("txn1")
-                        .userEmail("user@example.com")
-                        .dealId(1L)
-                        .status("SUCCESS")
-                        .amount("100.00")
-                        .paymentMethod("card")
-                        .createdAt(LocalDateTime.now())
-                        .build()
-        );
+        PaymentRequestDto requestDto = new PaymentRequestDto("fake-nonce", "100.00", "user@example.com", 1L);
+        when(idempotencyService.execute(eq("key-1"), eq("user@example.com"), eq(requestDto), any()))
+                .thenReturn(ResponseEntity.ok("Transaction successful. ID: txn123"));
+
+        ResponseEntity<String> response = paymentController.checkout(requestDto, "key-1");
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals("Transaction successful. ID: txn123", response.getBody());
+        verify(transactionGateway, never()).sale(any(TransactionRequest.class));
+    }
+
+    @Test
+    void testCheckout_DealLookupTimeoutFreesIdempotencyKeyForRetry() throws Exception {
+        Map<String, IdempotencyRecord> records = useRealIdempotencyService();
+
+        // First attempt: deal-service never answers, so the lookup times out before anything is charged
+        when(dealCatalog.getDeal(1L)).thenReturn(new CompletableFuture<>());
+        PaymentRequestDto requestDto = new PaymentRequestDto("fake-nonce", "100.00", "user@example.com", 1L);
+
+        ResponseEntity<String> first = paymentController.checkout(requestDto, "key-timeout");
+
+        assertEquals(503, first.getStatusCodeValue());
+        assertTrue(first.getBody().contains("timed out"));
+        assertTrue(records.isEmpty());
+        verify(transactionGateway, never()).sale(any(TransactionRequest.class));
+
+        // Retry with the same key once deal-service is back: charged for real, not a replayed failure
+        Deal deal = new Deal();
+        deal.setId(1L);
+        deal.setActive(true);
+        deal.setPrice(100.00);
+        when(dealCatalog.getDeal(1L)).thenReturn(CompletableFuture.completedFuture(deal));
+        stubSuccessfulSale("txn456");
+        when(paymentService.processPayment(any(PaymentTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<String> retry = paymentController.checkout(requestDto, "key-timeout");
+
+        assertEquals(200, retry.getStatusCodeValue());
+        assertEquals("Transaction successful. ID: txn456", retry.getBody());
+        assertNull(retry.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(IdempotencyRecord.Status.COMPLETED, records.values().iterator().next().getStatus());
+    }
+
+    @Test
+    void testCheckout_ChargedButNotRecordedKeepsIdempotencyKey() throws Exception {
+        Map<String, IdempotencyRecord> records = useRealIdempotencyService();
+        stubSuccessfulSale("txn789");
+        when(paymentService.processPayment(any(PaymentTransaction.class))).thenThrow(new IllegalStateException("outbox write failed"));
+        PaymentRequestDto requestDto = new PaymentRequestDto("fake-nonce", "100.00", "user@example.com", 1L);
+
+        ResponseEntity<String> first = paymentController.checkout(requestDto, "key-charged");
+
+        assertEquals(500, first.getStatusCodeValue());
+        assertTrue(first.getBody().contains("txn789 was charged"));
+        assertEquals(IdempotencyRecord.Status.COMPLETED, records.values().iterator().next().getStatus());
+
+        // The retry replays the failure instead of charging the card a second time
+        ResponseEntity<String> retry = paymentController.checkout(requestDto, "key-charged");
+
+        assertEquals(500, retry.getStatusCodeValue());
+        assertEquals("true", retry.getHeaders().getFirst("Idempotent-Replayed"));
+        verify(transactionGateway, times(1)).sale(any(TransactionRequest.class));
+    }
+
+    @Test
+    void testCheckout_DeclineIsAFinalOutcomeForTheKey() throws Exception {
+        Map<String, IdempotencyRecord> records = useRealIdempotencyService();
+        Result<Transaction> result = mock(Result.class);
+        when(result.isSuccess()).thenReturn(false);
+        when(result.getMessage()).thenReturn("Insufficient Funds");
+        when(transactionGateway.sale(any(TransactionRequest.class))).thenReturn(result);
+        PaymentRequestDto requestDto = new PaymentRequestDto("fake-nonce", "100.00", "user@example.com", 1L);
+
+        ResponseEntity<String> response = paymentController.checkout(requestDto, "key-declined");
+
+        assertEquals(402, response.getStatusCodeValue());
+        assertTrue(response.getBody().contains("Insufficient Funds"));
+        assertEquals(402, records.values().iterator().next().getResponseStatus());
+    }
+
+    @Test
+    void testCheckout_LiveClaimBlocksButStaleClaimIsTakenOver() throws Exception {
+        Map<String, IdempotencyRecord> records = useRealIdempotencyService();
+        PaymentRequestDto requestDto = new PaymentRequestDto("fake-nonce", "100.00", "user@example.com", 1L);
+        stubSuccessfulSale("txn321");
+        when(paymentService.processPayment(any(PaymentTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Another instance is working on the key
+        IdempotencyRecord claim = IdempotencyRecord.builder()
+                .id(idempotencyId("key-claimed"))
+                .requestHash("other-instance")
+                .status(IdempotencyRecord.Status.IN_PROGRESS)
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusMinutes(2))
+                .build();
+        records.put(claim.getId(), claim);
+
+        ResponseEntity<String> blocked = paymentController.checkout(requestDto, "key-claimed");
+
+        assertEquals(409, blocked.getStatusCodeValue());
+        verify(transactionGateway, never()).sale(any(TransactionRequest.class));
 
-        when(paymentTransactionRepository.findByUserEmail("user@example.com")).thenReturn(mockTransactions);
+        // That instance crashed and its lease ran out
+        claim.setExpiresAt(LocalDateTime.now().minusSeconds(1));
 
-        ResponseEntity<List<PaymentTransaction>> response = paymentController.getUserTransactions();
+        ResponseEntity<String> takenOver = paymentController.checkout(requestDto, "key-claimed");
+
+        assertEquals(200, takenOver.getStatusCodeValue());
+        assertEquals("Transaction successful. ID: txn321", takenOver.getBody());
+        assertEquals(IdempotencyRecord.Status.COMPLETED, records.get(claim.getId()).getStatus());
+    }
+
+    @Test
+    void testCheckoutAsync_ReturnsAccepted() {
+        PaymentRequestDto requestDto = new PaymentRequestDto("fake-nonce", "100.00", "user@example.com", 1L);
+        CheckoutAttempt attempt = CheckoutAttempt.builder()
+                .paymentId("pay-1")
+                .userEmail("user@example.com")
+                .status(CheckoutAttempt.Status.PENDING)
+                .build();
+        when(asyncCheckoutService.submit(requestDto)).thenReturn(attempt);
+
+        ResponseEntity<?> response = paymentController.checkoutAsync(requestDto);
+
+        assertEquals(202, response.getStatusCodeValue());
+        assertEquals("/payments/pay-1/status", response.getHeaders().getLocation().toString());
+        verify(transactionGateway, never()).sale(any(TransactionRequest.class));
+    }
+
+    @Test
+    void testGetCheckoutStatus_OtherUsersPaymentIsHidden() {
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getName()).thenReturn("someone-else@example.com");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        CheckoutAttempt attempt = CheckoutAttempt.builder()
+                .paymentId("pay-1")
+                .userEmail("user@example.com")
+                .status(CheckoutAttempt.Status.SUCCEEDED)
+                .build();
+        when(asyncCheckoutService.findById("pay-1")).thenReturn(Optional.of(attempt));
+
+        ResponseEntity<CheckoutAttempt> response = paymentController.getCheckoutStatus("pay-1");
+
+        assertEquals(404, response.getStatusCodeValue());
+    }
+
+    @Test
+    void testGetUserTransactions_KeysetPaged() {
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getName()).thenReturn("user@example.com");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 30);
+        PaymentHistoryItem item = new PaymentHistoryItem("txn1", 1L, "SUCCESS", 10000, "INR", "card", createdAt);
+        when(paymentTransactionRepository.findHistory(eq("user@example.com"), isNull(), isNull(), isNull(),
+                isNull(), isNull(), any())).thenReturn(List.of(item));
+
+        ResponseEntity<?> response = paymentController.getUserTransactions(null, null, null, null, 1);
 
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(1, response.getBody().size());
-        assertEquals("txn1", response.getBody().get(0).getTransactionId());
+        PaymentHistoryPage page = (PaymentHistoryPage) response.getBody();
+        assertEquals("txn1", page.getPayments().get(0).getTransactionId());
+        assertNotNull(page.getNextCursor());
+
+        paymentController.getUserTransactions(null, null, null, page.getNextCursor(), 1);
+        verify(paymentTransactionRepository).findHistory(eq("user@example.com"), isNull(), isNull(), isNull(),
+                eq(createdAt), eq("txn1"), any());
+    }
+
+    @Test
+    void testGetUserTransactions_InvalidCursor() {
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getName()).thenReturn("user@example.com");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        ResponseEntity<?> response = paymentController.getUserTransactions(null, null, null, "not-a-cursor", 20);
+
+        assertEquals(400, response.getStatusCodeValue());
     }
 
     @Test
@@ -126,7 +362,8 @@ class PaymentControllerTest {
                         .userEmail("admin@example.com")
                         .dealId(2L)
                         .status("SUCCESS")
-                        .amount("200.00")
+                        .amountMinor(20000)
+                        .currency("INR")
                         .paymentMethod("paypal")
                         .createdAt(LocalDateTime.now())
                         .build()
@@ -139,4 +376,79 @@ class PaymentControllerTest {
         assertEquals(200, response.getStatusCodeValue());
         assertEquals("txn2", response.getBody().get(0).getTransactionId());
     }
+
+    @Test
+    void testGetRevenueByDay_DefaultsToLast30Days() {
+        LocalDate today = LocalDate.now();
+        List<RevenueByDay> rows = List.of(new RevenueByDay(today, "INR", 3, 30050));
+        when(paymentTransactionRepository.revenueByDay(today.minusDays(29).atStartOfDay(), today.plusDays(1).atStartOfDay()))
+                .thenReturn(rows);
+
+        ResponseEntity<List<RevenueByDay>> response = paymentController.getRevenueByDay(null, null);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(new BigDecimal("300.50"), response.getBody().get(0).getTotal());
+    }
+
+    // A real IdempotencyService over an in-memory record table, for the current user
+    private Map<String, IdempotencyRecord> useRealIdempotencyService() throws Exception {
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getName()).thenReturn("user@example.com");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        Map<String, IdempotencyRecord> records = new HashMap<>();
+        IdempotencyRecordRepository recordRepository = mock(IdempotencyRecordRepository.class);
+        when(recordRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(records.get(invocation.getArgument(0))));
+        Answer<IdempotencyRecord> store = invocation -> {
+            IdempotencyRecord record = invocation.getArgument(0);
+            records.put(record.getId(), record);
+            return record;
+        };
+        when(recordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(store);
+        when(recordRepository.save(any(IdempotencyRecord.class))).thenAnswer(store);
+        doAnswer(invocation -> records.remove(invocation.getArgument(0))).when(recordRepository).deleteById(anyString());
+        when(recordRepository.takeOverStale(anyString(), anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            IdempotencyRecord record = records.get(invocation.getArgument(0));
+            LocalDateTime now = invocation.getArgument(3);
+            if (record == null || record.getStatus() != invocation.getArgument(2) || record.getExpiresAt().isAfter(now)) {
+                return 0;
+            }
+            record.setRequestHash(invocation.getArgument(1));
+            record.setExpiresAt(invocation.getArgument(4));
+            return 1;
+        });
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        IdempotencyService realIdempotencyService = new IdempotencyService(recordRepository, transactionTemplate, 100);
+        setField(IdempotencyService.class, realIdempotencyService, "ttlHours", 24L);
+        setField(IdempotencyService.class, realIdempotencyService, "inProgressLeaseMs", 120_000L);
+        setField(PaymentController.class, paymentController, "idempotencyService", realIdempotencyService);
+        return records;
+    }
+
+    private void stubSuccessfulSale(String transactionId) {
+        Transaction transaction = mock(Transaction.class);
+        when(transaction.getId()).thenReturn(transactionId);
+        when(transaction.getStatus()).thenReturn(Transaction.Status.SUBMITTED_FOR_SETTLEMENT);
+        when(transaction.getAmount()).thenReturn(new BigDecimal("100.00"));
+        when(transaction.getCurrencyIsoCode()).thenReturn("INR");
+        Result<Transaction> result = mock(Result.class);
+        when(result.isSuccess()).thenReturn(true);
+        when(result.getTarget()).thenReturn(transaction);
+        when(transactionGateway.sale(any(TransactionRequest.class))).thenReturn(result);
+    }
+
+    // Same derivation as IdempotencyService: SHA-256 of "userEmail:Idempotency-Key"
+    private static String idempotencyId(String idempotencyKey) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(("user@example.com:" + idempotencyKey).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void setField(Class<?> type, Object target, String name, Object value) throws Exception {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
 }
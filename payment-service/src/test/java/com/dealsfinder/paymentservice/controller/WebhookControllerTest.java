@@ -0,0 +1,81 @@
+package com.dealsfinder.paymentservice.controller;
+
+import com.braintreegateway.BraintreeGateway;
+import com.braintreegateway.Environment;
+import com.braintreegateway.WebhookNotification;
+import com.dealsfinder.paymentservice.gateway.BraintreePaymentGateway;
+import com.dealsfinder.paymentservice.gateway.SettlementNotification;
+import com.dealsfinder.paymentservice.service.SettlementUpdateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WebhookControllerTest {
+
+    private BraintreeGateway braintreeGateway;
+    private SettlementUpdateService settlementUpdateService;
+    private WebhookController webhookController;
+
+    @BeforeEach
+    void setUp() {
+        // Webhook signing/verification is local, so an offline client with test keys is enough
+        braintreeGateway = new BraintreeGateway(Environment.DEVELOPMENT, "merchant", "public_key", "private_key");
+        settlementUpdateService = mock(SettlementUpdateService.class);
+        webhookController = new WebhookController(new BraintreePaymentGateway(braintreeGateway), settlementUpdateService);
+    }
+
+    @Test
+    void testReceiveWebhook_SettledIsQueued() {
+        when(settlementUpdateService.enqueue(any())).thenReturn(true);
+        Map<String, String> sample = sample("transaction_settled", "txn123");
+
+        var response = webhookController.receiveWebhook(sample.get("bt_signature"), sample.get("bt_payload"));
+
+        assertEquals(200, response.getStatusCodeValue());
+        ArgumentCaptor<SettlementNotification> captor = ArgumentCaptor.forClass(SettlementNotification.class);
+        verify(settlementUpdateService).enqueue(captor.capture());
+        assertEquals("txn123", captor.getValue().getTransactionId());
+        assertEquals("SETTLED", captor.getValue().getStatus());
+    }
+
+    @Test
+    void testReceiveWebhook_DisputeMapsToDisputeStatus() {
+        when(settlementUpdateService.enqueue(any())).thenReturn(true);
+        Map<String, String> sample = sample("dispute_lost", "txn123");
+
+        webhookController.receiveWebhook(sample.get("bt_signature"), sample.get("bt_payload"));
+
+        ArgumentCaptor<SettlementNotification> captor = ArgumentCaptor.forClass(SettlementNotification.class);
+        verify(settlementUpdateService).enqueue(captor.capture());
+        assertEquals("DISPUTE_LOST", captor.getValue().getStatus());
+    }
+
+    @Test
+    void testReceiveWebhook_BadSignatureIsRejected() {
+        Map<String, String> sample = sample("transaction_settled", "txn123");
+
+        var response = webhookController.receiveWebhook("public_key|forged", sample.get("bt_payload"));
+
+        assertEquals(403, response.getStatusCodeValue());
+        verifyNoInteractions(settlementUpdateService);
+    }
+
+    @Test
+    void testReceiveWebhook_UnrecordedWebhookAsksForRetry() {
+        when(settlementUpdateService.enqueue(any())).thenReturn(false);
+        Map<String, String> sample = sample("transaction_settled", "txn123");
+
+        var response = webhookController.receiveWebhook(sample.get("bt_signature"), sample.get("bt_payload"));
+
+        assertEquals(503, response.getStatusCodeValue());
+    }
+
+    private Map<String, String> sample(String kind, String transactionId) {
+        return braintreeGateway.webhookTesting().sampleNotification(WebhookNotification.Kind.valueOf(kind.toUpperCase()), transactionId);
+    }
+}
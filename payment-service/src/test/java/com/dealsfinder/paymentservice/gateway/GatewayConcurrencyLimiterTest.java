@@ -0,0 +1,70 @@
+package com.dealsfinder.paymentservice.gateway;
+
+import com.dealsfinder.paymentservice.exception.CheckoutRejectedException;
+import com.dealsfinder.paymentservice.exception.PaymentGatewayException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new GatewayConcurrencyLimiter(meterRegistry, 2, 1, 10, 1.5, 0.2, 0.5, 10);
+    }
+
+    @Test
+    void testExecute_RejectsFastWhenLimitReached() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                executor.submit(() -> limiter.execute(() -> {
+                    started.countDown();
+                    await(release);
+                    return "ok";
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(CheckoutRejectedException.class, () -> limiter.execute(() -> "too many"));
+            assertEquals(2, limiter.getInFlight());
+            assertEquals(1.0, meterRegistry.get("payment.gateway.rejected").counter().count());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testExecute_GatewayErrorsShrinkTheLimit() {
+        assertThrows(PaymentGatewayException.class, () -> limiter.execute(() -> {
+            throw new PaymentGatewayException("Payment gateway unavailable: ServerException");
+        }));
+
+        assertEquals(1.0, limiter.getLimit());
+        assertEquals(1.0, meterRegistry.get("payment.gateway.limit").gauge().value());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
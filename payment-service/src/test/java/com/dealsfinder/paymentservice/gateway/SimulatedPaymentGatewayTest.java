@@ -0,0 +1,91 @@
+package com.dealsfinder.paymentservice.gateway;
+
+import com.dealsfinder.paymentservice.exception.PaymentGatewayException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedPaymentGatewayTest {
+
+    private SimulatedPaymentGateway gateway;
+
+    // Configured exactly as the gateway-sim profile ships, apart from the distribution
+    @BeforeEach
+    void setUp() throws IOException {
+        Properties sim = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application-gateway-sim.properties"));
+        gateway = new SimulatedPaymentGateway(sim.getProperty("gateway.sim.decline-nonce-pattern"),
+                sim.getProperty("gateway.sim.reject-nonce-pattern"), sim.getProperty("gateway.sim.error-nonce-pattern"));
+        ReflectionTestUtils.setField(gateway, "declineRate", Double.parseDouble(sim.getProperty("gateway.sim.decline-rate")));
+        ReflectionTestUtils.setField(gateway, "errorRate", Double.parseDouble(sim.getProperty("gateway.sim.error-rate")));
+        ReflectionTestUtils.setField(gateway, "currency", sim.getProperty("gateway.sim.currency"));
+        ReflectionTestUtils.setField(gateway, "medianMs", Double.parseDouble(sim.getProperty("gateway.sim.latency.median-ms")));
+        ReflectionTestUtils.setField(gateway, "p99Ms", Double.parseDouble(sim.getProperty("gateway.sim.latency.p99-ms")));
+        ReflectionTestUtils.setField(gateway, "minMs", Double.parseDouble(sim.getProperty("gateway.sim.latency.min-ms")));
+        ReflectionTestUtils.setField(gateway, "maxMs", Double.parseDouble(sim.getProperty("gateway.sim.latency.max-ms")));
+        ReflectionTestUtils.setField(gateway, "latencyDistribution", "none");
+    }
+
+    @Test
+    void testNextLatency_NoneIsZeroDespiteMinMs() {
+        assertEquals(0, gateway.nextLatencyMs());
+    }
+
+    @Test
+    void testNextLatency_OtherDistributionsStayWithinBounds() {
+        for (String distribution : new String[]{"fixed", "uniform", "lognormal"}) {
+            ReflectionTestUtils.setField(gateway, "latencyDistribution", distribution);
+            for (int i = 0; i < 1000; i++) {
+                long latency = gateway.nextLatencyMs();
+                assertTrue(latency >= 50 && latency <= 5000, distribution + " gave " + latency);
+            }
+        }
+    }
+
+    @Test
+    void testSampleWebhook_IsAcceptedByTheSimulator() {
+        Map<String, String> sample = gateway.sampleWebhook("transaction_settled", "txn123");
+
+        SettlementNotification notification = gateway.parseWebhook(sample.get("bt_signature"), sample.get("bt_payload"));
+
+        assertEquals("txn123", notification.getTransactionId());
+        assertEquals("SETTLED", notification.getStatus());
+    }
+
+    @Test
+    void testSale_ValidNonceIsSubmittedForSettlement() {
+        ChargeResult result = gateway.sale(new BigDecimal("100.00"), "fake-valid-nonce");
+
+        assertTrue(result.isSuccess());
+        assertEquals("SUBMITTED_FOR_SETTLEMENT", result.getStatus());
+        assertTrue(result.getTransactionId().matches("[a-z0-9]{8}"));
+        assertEquals(new BigDecimal("100.00"), result.getAmount());
+    }
+
+    @Test
+    void testSale_OutcomesFollowNoncePatterns() {
+        ChargeResult declined = gateway.sale(new BigDecimal("100.00"), "fake-processor-declined-visa-nonce");
+        ChargeResult rejected = gateway.sale(new BigDecimal("100.00"), "fake-gateway-rejected-kount-verification-nonce");
+
+        assertFalse(declined.isSuccess());
+        assertEquals("PROCESSOR_DECLINED", declined.getStatus());
+        assertFalse(rejected.isSuccess());
+        assertEquals("GATEWAY_REJECTED", rejected.getStatus());
+        assertThrows(PaymentGatewayException.class, () -> gateway.sale(new BigDecimal("100.00"), "fake-gateway-error-nonce"));
+    }
+
+    @Test
+    void testSale_ErrorRateOfOneAlwaysFails() {
+        ReflectionTestUtils.setField(gateway, "errorRate", 1.0);
+
+        assertThrows(PaymentGatewayException.class, () -> gateway.sale(new BigDecimal("100.00"), "fake-valid-nonce"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.paymentservice.dto.PaymentRequestDto;
+import com.dealsfinder.paymentservice.entity.CheckoutAttempt;
+import com.dealsfinder.paymentservice.exception.PaymentNotRecordedException;
+import com.dealsfinder.paymentservice.repository.CheckoutAttemptRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AsyncCheckoutServiceTest {
+
+    private CheckoutAttemptRepository checkoutAttemptRepository;
+    private CheckoutService checkoutService;
+    private AsyncCheckoutService asyncCheckoutService;
+
+    // Snapshots of each saved state, since the service mutates one attempt object
+    private final List<CheckoutAttempt> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        checkoutAttemptRepository = mock(CheckoutAttemptRepository.class);
+        checkoutService = mock(CheckoutService.class);
+        when(checkoutAttemptRepository.save(any(CheckoutAttempt.class))).thenAnswer(invocation -> {
+            CheckoutAttempt attempt = invocation.getArgument(0);
+            saved.add(CheckoutAttempt.builder()
+                    .paymentId(attempt.getPaymentId())
+                    .status(attempt.getStatus())
+                    .transactionId(attempt.getTransactionId())
+                    .message(attempt.getMessage())
+                    .build());
+            return attempt;
+        });
+        // Runs the pipeline on the calling thread
+        asyncCheckoutService = new AsyncCheckoutService(checkoutAttemptRepository, checkoutService,
+                new TaskExecutorAdapter(Runnable::run));
+    }
+
+    @Test
+    void testSubmit_LongFailureMessageIsTruncated() {
+        when(checkoutService.checkout(any())).thenThrow(new IllegalStateException("x".repeat(1000)));
+
+        asyncCheckoutService.submit(request());
+
+        CheckoutAttempt last = saved.get(saved.size() - 1);
+        assertEquals(CheckoutAttempt.Status.FAILED, last.getStatus());
+        assertEquals(CheckoutAttempt.MESSAGE_LENGTH, last.getMessage().length());
+        assertTrue(last.getMessage().startsWith("Payment processing failed: xxx"));
+    }
+
+    @Test
+    void testSubmit_ChargedButNotRecordedKeepsTransactionId() {
+        when(checkoutService.checkout(any())).thenThrow(new PaymentNotRecordedException("txn42", new RuntimeException("db down")));
+
+        asyncCheckoutService.submit(request());
+
+        CheckoutAttempt last = saved.get(saved.size() - 1);
+        assertEquals(CheckoutAttempt.Status.FAILED, last.getStatus());
+        assertEquals("txn42", last.getTransactionId());
+        assertTrue(last.getMessage().contains("contact support"));
+    }
+
+    @Test
+    void testSubmit_OutcomeIsRecordedEvenIfItsMessageIsRejected() {
+        when(checkoutService.checkout(any())).thenThrow(new IllegalStateException("boom"));
+        when(checkoutAttemptRepository.save(argThat(attempt -> attempt != null && attempt.getMessage() != null
+                && attempt.getStatus() == CheckoutAttempt.Status.FAILED)))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'message'"));
+
+        asyncCheckoutService.submit(request());
+
+        CheckoutAttempt last = saved.get(saved.size() - 1);
+        assertEquals(CheckoutAttempt.Status.FAILED, last.getStatus());
+        assertNull(last.getMessage());
+    }
+
+    private static PaymentRequestDto request() {
+        PaymentRequestDto request = new PaymentRequestDto();
+        request.setPaymentMethodNonce("fake-valid-nonce");
+        request.setAmount("10.00");
+        request.setUserEmail("user@example.com");
+        request.setDealId(1L);
+        return request;
+    }
+}
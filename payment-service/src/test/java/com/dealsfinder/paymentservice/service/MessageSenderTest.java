@@ -0,0 +1,95 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.paymentservice.entity.OutboxEvent;
+import com.dealsfinder.paymentservice.repository.OutboxEventRepository;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Return;
+import com.rabbitmq.client.ReturnCallback;
+import com.rabbitmq.client.ReturnListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageSenderTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final Channel channel = mock(Channel.class);
+    private final AtomicReference<ReturnCallback> returns = new AtomicReference<>();
+    private final MessageSender messageSender = new MessageSender(rabbitTemplate);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(rabbitTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+        when(channel.addReturnListener(any(ReturnCallback.class))).thenAnswer(invocation -> {
+            returns.set(invocation.getArgument(0));
+            return mock(ReturnListener.class);
+        });
+        // Nothing is bound for "nowhere": the broker hands such messages back before confirming them
+        doAnswer(invocation -> {
+            if ("nowhere".equals(invocation.getArgument(1))) {
+                returns.get().handle(new Return(312, "NO_ROUTE", invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(3), invocation.getArgument(4)));
+            }
+            return null;
+        }).when(channel).basicPublish(anyString(), anyString(), anyBoolean(), any(AMQP.BasicProperties.class), any(byte[].class));
+    }
+
+    @Test
+    void testPublishConfirmed_PublishesMandatoryAndReportsUnroutable() throws Exception {
+        Set<Long> unroutable = messageSender.publishConfirmed(List.of(event(1L, "payment.completed"), event(2L, "nowhere")), 5000);
+
+        assertEquals(Set.of(2L), unroutable);
+        verify(channel).basicPublish(eq("payment-exchange"), eq("payment.completed"), eq(true), any(AMQP.BasicProperties.class),
+                any(byte[].class));
+        verify(channel).waitForConfirmsOrDie(5000);
+    }
+
+    @Test
+    void testRelay_UnroutableEventsStayPending() {
+        OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+        when(outboxEventRepository.lockBatch(eq(OutboxEvent.Status.PENDING), any(Pageable.class)))
+                .thenReturn(List.of(event(1L, "payment.completed"), event(2L, "nowhere")));
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, messageSender, transactionTemplate);
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+
+        relay.relay();
+
+        verify(outboxEventRepository).markAs(eq(OutboxEvent.Status.SENT), any(), eq(List.of(1L)));
+    }
+
+    private static OutboxEvent event(long id, String routingKey) {
+        return OutboxEvent.builder()
+                .id(id)
+                .exchange("payment-exchange")
+                .routingKey(routingKey)
+                .partitionKey("user@example.com")
+                .payload("{\"transactionId\":\"txn" + id + "\"}")
+                .payloadType("com.dealsfinder.paymentservice.dto.PaymentCompletedEvent")
+                .status(OutboxEvent.Status.PENDING)
+                .build();
+    }
+}
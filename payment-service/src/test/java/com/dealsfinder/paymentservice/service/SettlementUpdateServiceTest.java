@@ -0,0 +1,110 @@
+package com.dealsfinder.paymentservice.service;
+
+import com.dealsfinder.paymentservice.entity.PendingSettlement;
+import com.dealsfinder.paymentservice.gateway.SettlementNotification;
+import com.dealsfinder.paymentservice.repository.PaymentTransactionRepository;
+import com.dealsfinder.paymentservice.repository.PendingSettlementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SettlementUpdateServiceTest {
+
+    private static final LocalDateTime OCCURRED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private PendingSettlementRepository pendingSettlementRepository;
+    private PaymentTransactionRepository paymentTransactionRepository;
+    private JdbcTemplate jdbcTemplate;
+    private SettlementUpdateService settlementUpdateService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        pendingSettlementRepository = mock(PendingSettlementRepository.class);
+        paymentTransactionRepository = mock(PaymentTransactionRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        settlementUpdateService = new SettlementUpdateService(pendingSettlementRepository, paymentTransactionRepository,
+                jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(settlementUpdateService, "batchSize", 10);
+        ReflectionTestUtils.setField(settlementUpdateService, "retryDelayMs", 5000L);
+        ReflectionTestUtils.setField(settlementUpdateService, "maxAttempts", 3);
+    }
+
+    @Test
+    void testEnqueue_StoresNotificationBeforeAck() {
+        assertTrue(settlementUpdateService.enqueue(new SettlementNotification("txn1", "SETTLED", OCCURRED_AT)));
+
+        ArgumentCaptor<PendingSettlement> captor = ArgumentCaptor.forClass(PendingSettlement.class);
+        verify(pendingSettlementRepository).save(captor.capture());
+        assertEquals("txn1", captor.getValue().getTransactionId());
+        assertEquals("SETTLED", captor.getValue().getStatus());
+        assertEquals(OCCURRED_AT, captor.getValue().getOccurredAt());
+    }
+
+    @Test
+    void testEnqueue_StoreFailureRefusesWebhook() {
+        when(pendingSettlementRepository.save(any())).thenThrow(new DataAccessResourceFailureException("db down"));
+
+        assertFalse(settlementUpdateService.enqueue(new SettlementNotification("txn1", "SETTLED", OCCURRED_AT)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_UnmatchedUpdateIsKeptForLater() {
+        PendingSettlement applied = pending(1L, "txn1", 0);
+        PendingSettlement early = pending(2L, "txn2", 0);
+        PendingSettlement stale = pending(3L, "txn3", 0);
+        PendingSettlement exhausted = pending(4L, "txn4", 2);
+        when(pendingSettlementRepository.lockDue(any(), any())).thenReturn(List.of(applied, early, stale, exhausted));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 0, 0, 0}});
+        // txn3 exists with a newer status; txn2 and txn4 have not been committed yet
+        when(paymentTransactionRepository.findExistingIds(any())).thenReturn(List.of("txn3"));
+
+        settlementUpdateService.flush();
+
+        ArgumentCaptor<Collection<Long>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(pendingSettlementRepository).deleteByIds(deleted.capture());
+        assertEquals(List.of(1L, 3L, 4L), List.copyOf(deleted.getValue()));
+        assertEquals(1, early.getAttempts());
+        assertTrue(early.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(4)));
+    }
+
+    @Test
+    void testFlush_FailedBatchStaysPending() {
+        when(pendingSettlementRepository.lockDue(any(), any())).thenReturn(List.of(pending(1L, "txn1", 0)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+
+        settlementUpdateService.flush();
+
+        verify(pendingSettlementRepository, never()).deleteByIds(any());
+    }
+
+    private static PendingSettlement pending(Long id, String transactionId, int attempts) {
+        return PendingSettlement.builder()
+                .id(id)
+                .transactionId(transactionId)
+                .status("SETTLED")
+                .occurredAt(OCCURRED_AT)
+                .attempts(attempts)
+                .nextAttemptAt(OCCURRED_AT)
+                .build();
+    }
+}
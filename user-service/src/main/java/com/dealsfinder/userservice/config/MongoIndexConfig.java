@@ -0,0 +1,30 @@
+package com.dealsfinder.userservice.config;
+
+import com.dealsfinder.userservice.model.User;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+// Spring Boot leaves spring.data.mongodb.auto-index-creation off, so index annotations on the documents are never
+// applied. The indexes the queries rely on are created here at startup instead; ensureIndex is a no-op once they exist.
+@Configuration
+public class MongoIndexConfig {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    @Bean
+    public ApplicationRunner ensureUserIndexes(MongoTemplate mongoTemplate) {
+        return args -> {
+            IndexOperations indexes = mongoTemplate.indexOps(User.class);
+            // Keyset listing and export filtered by role (UserService.listUsers / streamUsers)
+            indexes.ensureIndex(new Index().named("role_id").on("role", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+            // One account per email, even when two registrations race past the existence check
+            indexes.ensureIndex(new Index().named("email").on("email", Sort.Direction.ASC).unique());
+            logger.info("🗂️ User indexes ensured");
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.dealsfinder.userservice.config;
+
+import com.dealsfinder.userservice.security.ReactiveJwtFilter;
+import com.dealsfinder.userservice.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// Only /auth/** and /users/profile have reactive controllers; see application-reactive.properties
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ReactiveSecurityConfig.class);
+
+    @Value("${auth.password-hashing.threads}")
+    private int passwordHashingThreads;
+
+    @Value("${auth.password-hashing.queue-size}")
+    private int passwordHashingQueueSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warnAboutScope() {
+        logger.warn("⚠️ Reactive profile: serving /auth/** and /users/profile only. The other /users/** endpoints need the default (servlet) user-service.");
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    // BCrypt is CPU bound and must never run on the event loop; a bounded pool also caps how many
+    // hashes run at once so a login burst cannot starve the rest of the service.
+    @Bean(destroyMethod = "dispose")
+    public Scheduler passwordHashingScheduler() {
+        return Schedulers.newBoundedElastic(passwordHashingThreads, passwordHashingQueueSize, "bcrypt");
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtUtil jwtUtil) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers(
+                                "/auth/**",
+                                "/v3/api-docs", "/v3/api-docs/**",
+                                "/swagger-ui.html", "/swagger-ui/**",
+                                "/swagger-resources/**", "/webjars/**"
+                        ).permitAll()
+                        .pathMatchers("/users/profile").hasAnyRole("USER", "ADMIN")
+                        .pathMatchers("/users/**").hasRole("ADMIN")
+                        .anyExchange().authenticated()
+                )
+                .addFilterAt(new ReactiveJwtFilter(jwtUtil), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.dealsfinder.userservice.config;
 
 import com.dealsfinder.userservice.security.JwtFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,6 +16,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
     @Bean
@@ -40,6 +42,8 @@ public class SecurityConfig {
                                 "/swagger-resources/**", "/webjars/**"
                         ).permitAll()
                         .requestMatchers("/users/profile").hasAnyRole("USER", "ADMIN")
+                        // Service-to-service lookups (e.g. cashback-service's tier lookups) carry a SERVICE token
+                        .requestMatchers("/users/email/**", "/users/lookup").hasAnyRole("ADMIN", "SERVICE")
                         .requestMatchers("/users/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
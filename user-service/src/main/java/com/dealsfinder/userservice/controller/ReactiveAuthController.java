@@ -0,0 +1,85 @@
+package com.dealsfinder.userservice.controller;
+
+import com.dealsfinder.userservice.dto.UserDTO;
+import com.dealsfinder.userservice.model.User;
+import com.dealsfinder.userservice.service.ReactiveUserService;
+import com.dealsfinder.userservice.util.JwtUtil;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private Validator validator;
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<?>> register(@RequestBody UserDTO userDTO) {
+        // Handle validation errors
+        Map<String, String> errors = validate(userDTO);
+        if (!errors.isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body(errors));
+        }
+
+        // Validate role
+        List<String> allowedRoles = List.of("USER", "ADMIN");
+        if (!allowedRoles.contains(userDTO.getRole().toUpperCase())) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("role", "Invalid role. Allowed roles are USER or ADMIN.")));
+        }
+
+        // Map DTO to Entity
+        User user = new User();
+        user.setName(userDTO.getName());
+        user.setEmail(userDTO.getEmail());
+        user.setPassword(userDTO.getPassword());
+        user.setRole(userDTO.getRole());
+
+        return userService.registerUser(user).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<?>> login(@RequestBody UserDTO userDTO) {
+        // Handle validation errors (optional for login)
+        Map<String, String> errors = validate(userDTO);
+        if (!errors.isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body(errors));
+        }
+
+        // Validate credentials
+        return userService.authenticate(userDTO.getEmail(), userDTO.getPassword())
+                .<ResponseEntity<?>>map(user -> {
+                    String token = jwtUtil.generateToken(user.getEmail(), user.getRole());
+                    Map<String, String> response = new HashMap<>();
+                    response.put("token", token);
+                    return ResponseEntity.ok(response);
+                })
+                .defaultIfEmpty(ResponseEntity.status(401).body(Map.of("error", "Invalid credentials")));
+    }
+
+    private Map<String, String> validate(UserDTO userDTO) {
+        Set<ConstraintViolation<UserDTO>> violations = validator.validate(userDTO);
+        Map<String, String> errors = new HashMap<>();
+        violations.forEach(violation ->
+                errors.put(violation.getPropertyPath().toString(), violation.getMessage())
+        );
+        return errors;
+    }
+}
@@ -0,0 +1,35 @@
+package com.dealsfinder.userservice.controller;
+
+import com.dealsfinder.userservice.exception.UserNotFoundException;
+import com.dealsfinder.userservice.model.User;
+import com.dealsfinder.userservice.service.ReactiveUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+// Role checks for these routes live in ReactiveSecurityConfig; @PreAuthorize is servlet-only here
+@RestController
+@RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @GetMapping("/profile")
+    public Mono<ResponseEntity<User>> getProfile() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName)
+                .flatMap(email -> userService.findByEmail(email)
+                        .switchIfEmpty(Mono.error(new UserNotFoundException("User with email " + email + " not found"))))
+                .map(ResponseEntity::ok);
+    }
+}
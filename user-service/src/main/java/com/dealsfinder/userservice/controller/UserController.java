@@ -1,21 +1,33 @@
 package com.dealsfinder.userservice.controller;
 
+import com.dealsfinder.userservice.dto.UserPageDTO;
+import com.dealsfinder.userservice.dto.UserSummaryDTO;
 import com.dealsfinder.userservice.exception.UserNotFoundException;
 import com.dealsfinder.userservice.model.Deal;
 import com.dealsfinder.userservice.model.User;
 import com.dealsfinder.userservice.repository.UserRepository;
 import com.dealsfinder.userservice.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
 
     @Autowired
@@ -24,6 +36,15 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${users.export.timeout-ms}")
+    private long exportTimeoutMs;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_LOOKUP_SIZE = 500;
+
     @GetMapping("/deals")
     public List<Deal> getAllDeals(@RequestHeader("Authorization") String authorizationHeader) {
         String token = authorizationHeader.replace("Bearer ", "");
@@ -41,6 +62,45 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/admin/list")
+    public ResponseEntity<UserPageDTO> listUsers(@RequestParam(required = false) String role,
+                                                 @RequestParam(required = false) String after,
+                                                 @RequestParam(defaultValue = "100") int limit,
+                                                 @RequestParam(required = false) List<String> fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<UserSummaryDTO> users = userService.listUsers(role, after, limit, fields);
+        String nextCursor = users.size() == limit ? users.get(users.size() - 1).getId() : null;
+        return ResponseEntity.ok(new UserPageDTO(users, nextCursor));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/admin/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportUsers(@RequestParam(required = false) String role,
+                                          @RequestParam(required = false) List<String> fields,
+                                          HttpServletResponse response) {
+        // Open the cursor before committing the response so a bad filter still gets a 400
+        Stream<UserSummaryDTO> users = userService.streamUsers(role, fields);
+
+        // Written on an async thread. The task carries its own timeout, so a large export is not cut off by the
+        // 30 s default and no other request gets the longer limit.
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream out = response.getOutputStream();
+            try (users) {
+                Iterator<UserSummaryDTO> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    out.write('\n');
+                }
+                out.flush();
+            }
+            return null;
+        });
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/id/{id}")
     public ResponseEntity<User> getUser(@PathVariable String id) {
@@ -59,7 +119,7 @@ public class UserController {
         return ResponseEntity.ok(savedUser);
     }
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SERVICE')")
     @GetMapping("/email/{email}")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
         User user = userRepository.findByEmail(email);
@@ -69,6 +129,16 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    // Batch form of /email/{email} for services enriching many events at once
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SERVICE')")
+    @PostMapping("/lookup")
+    public ResponseEntity<List<UserSummaryDTO>> lookupByEmails(@RequestBody List<String> emails) {
+        if (emails.isEmpty() || emails.size() > MAX_LOOKUP_SIZE) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_LOOKUP_SIZE + " emails can be looked up at once");
+        }
+        return ResponseEntity.ok(userService.findByEmails(emails));
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable String id, @RequestBody User updatedUser) {
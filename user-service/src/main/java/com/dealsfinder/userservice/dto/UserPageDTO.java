@@ -0,0 +1,13 @@
+package com.dealsfinder.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserPageDTO {
+    private List<UserSummaryDTO> users;
+    private String nextCursor; // pass back as "after" to get the next page, null on the last page
+}
@@ -0,0 +1,14 @@
+package com.dealsfinder.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+// Password-free projection of User used by the admin listing and export
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserSummaryDTO {
+    private String id;
+    private String name;
+    private String email;
+    private String role;
+}
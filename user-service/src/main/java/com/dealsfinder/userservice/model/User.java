@@ -2,7 +2,6 @@ package com.dealsfinder.userservice.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "users")
@@ -11,7 +10,6 @@ public class User {
     @Id
     private String id;
     private String name;
-    @Indexed(unique = true)
     private String email;
     private String password;
     private String role;
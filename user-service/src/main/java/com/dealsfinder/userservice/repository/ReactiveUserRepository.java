@@ -0,0 +1,11 @@
+package com.dealsfinder.userservice.repository;
+
+import com.dealsfinder.userservice.model.User;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+    Mono<User> findByEmail(String email);
+
+    Mono<Boolean> existsByEmail(String email);
+}
@@ -0,0 +1,68 @@
+package com.dealsfinder.userservice.security;
+
+import com.dealsfinder.userservice.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Reactive counterpart of JwtFilter. Not a @Component on purpose: it is only added to the
+// security filter chain, otherwise WebFlux would also register it as a global WebFilter.
+public class ReactiveJwtFilter implements WebFilter {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ReactiveJwtFilter.class);
+
+    private final JwtUtil jwtUtil;
+
+    public ReactiveJwtFilter(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        final String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (header == null || !header.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        final String token = jwtUtil.extractTokenFromHeader(header);
+        if (token == null) {
+            return chain.filter(exchange);
+        }
+
+        UsernamePasswordAuthenticationToken authenticationToken;
+        try {
+            String email = jwtUtil.extractEmail(token);
+            String role = jwtUtil.extractRole(token);
+            if (email == null) {
+                return chain.filter(exchange);
+            }
+            authenticationToken = new UsernamePasswordAuthenticationToken(
+                    email, null, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+        } catch (ExpiredJwtException | SignatureException | MalformedJwtException e) {
+            logger.warn("JWT validation failed: {}", e.getMessage());
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            DataBuffer body = response.bufferFactory()
+                    .wrap("Invalid or expired token".getBytes(StandardCharsets.UTF_8));
+            return response.writeWith(Mono.just(body));
+        }
+
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authenticationToken));
+    }
+}
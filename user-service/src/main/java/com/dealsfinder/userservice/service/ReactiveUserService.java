@@ -0,0 +1,64 @@
+package com.dealsfinder.userservice.service;
+
+import com.dealsfinder.userservice.model.User;
+import com.dealsfinder.userservice.repository.ReactiveUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier("passwordHashingScheduler")
+    private Scheduler passwordHashingScheduler;
+
+    public Mono<User> registerUser(User user) {
+        return userRepository.existsByEmail(user.getEmail())
+                .flatMap(exists -> {
+                    if (exists) {
+                        return Mono.error(new IllegalArgumentException("Email is already in use."));
+                    }
+                    return encode(user.getPassword());
+                })
+                .flatMap(hash -> {
+                    user.setPassword(hash);
+                    return userRepository.save(user);
+                })
+                // If two registrations race past existsByEmail, the unique email index (MongoIndexConfig) rejects
+                // the second insert; both cases answer 400 through GlobalExceptionHandler
+                .onErrorMap(DuplicateKeyException.class, e -> new IllegalArgumentException("Email is already in use."));
+    }
+
+    // Emits the user only when the password matches, empty otherwise
+    public Mono<User> authenticate(String email, String rawPassword) {
+        return userRepository.findByEmail(email)
+                .filterWhen(user -> matches(rawPassword, user.getPassword()));
+    }
+
+    public Mono<User> findByEmail(String email) {
+        return userRepository.findByEmail(email);
+    }
+
+    private Mono<String> encode(String rawPassword) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(rawPassword))
+                .subscribeOn(passwordHashingScheduler);
+    }
+
+    private Mono<Boolean> matches(String rawPassword, String encodedPassword) {
+        return Mono.fromCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword))
+                .subscribeOn(passwordHashingScheduler);
+    }
+}
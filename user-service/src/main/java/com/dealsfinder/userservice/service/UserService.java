@@ -1,17 +1,26 @@
 package com.dealsfinder.userservice.service;
 
+import com.dealsfinder.userservice.dto.UserSummaryDTO;
 import com.dealsfinder.userservice.model.Deal;
 import com.dealsfinder.userservice.model.User;
 import com.dealsfinder.userservice.repository.UserRepository;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
@@ -25,9 +34,17 @@ public class UserService {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Value("${deal.service.url}")
     private String dealServiceUrl;
 
+    @Value("${users.export.batch-size}")
+    private int exportBatchSize;
+
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of("name", "email", "role");
+
     public User registerUser(User user) {
         if (userRepository.findByEmail(user.getEmail()) != null) {
             throw new RuntimeException("Email is already in use.");
@@ -63,4 +80,44 @@ public class UserService {
     public User findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
+
+    // Keyset page over _id: each page is an index range scan, no matter how deep the caller pages
+    public List<UserSummaryDTO> listUsers(String role, String after, int limit, Collection<String> fields) {
+        Query query = summaryQuery(role, fields).limit(limit);
+        if (after != null && !after.isBlank()) {
+            if (!ObjectId.isValid(after)) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+            query.addCriteria(Criteria.where("_id").gt(new ObjectId(after)));
+        }
+        return mongoTemplate.find(query, UserSummaryDTO.class, "users");
+    }
+
+    // Server-side cursor fetched in batches; the caller must close the stream
+    public Stream<UserSummaryDTO> streamUsers(String role, Collection<String> fields) {
+        Query query = summaryQuery(role, fields).cursorBatchSize(exportBatchSize);
+        return mongoTemplate.stream(query, UserSummaryDTO.class, "users");
+    }
+
+    // Resolves many users in one $in query on the unique email index; unknown emails are simply absent
+    public List<UserSummaryDTO> findByEmails(Collection<String> emails) {
+        Query query = summaryQuery(null, null).addCriteria(Criteria.where("email").in(emails));
+        return mongoTemplate.find(query, UserSummaryDTO.class, "users");
+    }
+
+    private Query summaryQuery(String role, Collection<String> fields) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        if (role != null && !role.isBlank()) {
+            query.addCriteria(Criteria.where("role").is(role));
+        }
+        // Never ship password hashes, and only ship what was asked for
+        Collection<String> projected = (fields == null || fields.isEmpty()) ? PROJECTABLE_FIELDS : fields;
+        for (String field : projected) {
+            if (!PROJECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field + ". Allowed fields are " + PROJECTABLE_FIELDS);
+            }
+            query.fields().include(field);
+        }
+        return query;
+    }
 }
@@ -1,5 +1,6 @@
 package com.dealsfinder.userservice.controller;
 
+import com.dealsfinder.userservice.dto.UserSummaryDTO;
 import com.dealsfinder.userservice.model.Deal;
 import com.dealsfinder.userservice.model.User;
 import com.dealsfinder.userservice.repository.UserRepository;
@@ -12,19 +13,23 @@ import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -59,6 +64,10 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    // Keeps the startup index creation (MongoIndexConfig) away from a real MongoDB
+    @MockBean(answer = Answers.RETURNS_DEEP_STUBS)
+    private MongoTemplate mongoTemplate;
+
     private User sampleUser;
 
     @BeforeEach
@@ -203,4 +212,70 @@ class UserControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("User with ID 1 not found"));
     }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void testListUsers_CursorRoundTrip() throws Exception {
+        when(userService.listUsers(null, null, 2, null)).thenReturn(List.of(summary("a1"), summary("a2")));
+        when(userService.listUsers(null, "a2", 2, null)).thenReturn(List.of(summary("a3")));
+
+        // A full page hands back its last id as the cursor
+        mockMvc.perform(get("/users/admin/list").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[*].id", contains("a1", "a2")))
+                .andExpect(jsonPath("$.nextCursor").value("a2"));
+
+        // Passing it back as "after" resumes there, and a short page ends the listing
+        mockMvc.perform(get("/users/admin/list").param("limit", "2").param("after", "a2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.users[0].id").value("a3"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void testListUsers_LimitOutOfRange() throws Exception {
+        mockMvc.perform(get("/users/admin/list").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("limit must be between 1 and 1000"));
+        mockMvc.perform(get("/users/admin/list").param("limit", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("limit must be between 1 and 1000"));
+
+        verify(userService, never()).listUsers(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void testListUsers_InvalidCursor() throws Exception {
+        // The cursor is validated before MongoDB is queried, so the real method runs safely on the mock
+        when(userService.listUsers(any(), any(), anyInt(), any())).thenCallRealMethod();
+
+        mockMvc.perform(get("/users/admin/list").param("after", "not-an-id"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor: not-an-id"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void testExportUsers_StreamsNdjson() throws Exception {
+        when(userService.streamUsers("USER", null)).thenReturn(Stream.of(summary("a1"), summary("a2")));
+
+        MvcResult result = mockMvc.perform(get("/users/admin/export").param("role", "USER"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":\"a1\",\"role\":\"USER\"}\n{\"id\":\"a2\",\"role\":\"USER\"}\n"));
+    }
+
+    private static UserSummaryDTO summary(String id) {
+        UserSummaryDTO user = new UserSummaryDTO();
+        user.setId(id);
+        user.setRole("USER");
+        return user;
+    }
 }
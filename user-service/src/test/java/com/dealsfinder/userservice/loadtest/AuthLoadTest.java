@@ -0,0 +1,131 @@
+package com.dealsfinder.userservice.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the MVC and reactive auth stacks under the same register + login load.
+ * Start one instance normally and one with the "reactive" profile on another port, then run e.g.
+ * mvn test -Dtest=AuthLoadTest -Dloadtest.mvcUrl=http://localhost:8001 -Dloadtest.reactiveUrl=http://localhost:8011
+ */
+@EnabledIfSystemProperty(named = "loadtest.mvcUrl", matches = ".+")
+class AuthLoadTest {
+
+    private static final String PASSWORD = "Passw0rd@123";
+
+    private final int users = Integer.getInteger("loadtest.users", 500);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void compareMvcAndReactiveAuth() throws Exception {
+        List<Report> reports = new ArrayList<>();
+        reports.addAll(run("mvc", System.getProperty("loadtest.mvcUrl")));
+
+        String reactiveUrl = System.getProperty("loadtest.reactiveUrl");
+        if (reactiveUrl != null && !reactiveUrl.isBlank()) {
+            reports.addAll(run("reactive", reactiveUrl));
+        }
+
+        System.out.printf("%n%-18s %8s %8s %10s %8s %8s %8s %8s%n",
+                "scenario", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        reports.forEach(Report::print);
+    }
+
+    private List<Report> run(String stack, String baseUrl) throws Exception {
+        String prefix = "lt" + UUID.randomUUID().toString().substring(0, 8);
+        Report register = fire(stack + " register", users, i ->
+                post(baseUrl + "/auth/register", body(prefix, i)));
+        Report login = fire(stack + " login", users, i ->
+                post(baseUrl + "/auth/login", body(prefix, i)));
+        return List.of(register, login);
+    }
+
+    private Report fire(String name, int requests, Call call) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                final int index = i;
+                inFlight.acquire();
+                futures.add(executor.submit(() -> {
+                    long t0 = System.nanoTime();
+                    try {
+                        if (call.send(index) >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latencies[index] = System.nanoTime() - t0;
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Report(name, latencies, errors.get(), elapsed);
+    }
+
+    private int post(String url, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // Login is validated with the same DTO as register, so both requests carry name and role
+    private static String body(String prefix, int i) {
+        return "{\"name\":\"Load Test\",\"role\":\"USER\",\"email\":\"" + prefix + "." + i + "@gmail.com\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        int send(int index) throws Exception;
+    }
+
+    private record Report(String name, long[] latencies, int errors, long elapsedNanos) {
+
+        void print() {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            System.out.printf("%-18s %8d %8d %10.1f %8.1f %8.1f %8.1f %8.1f%n",
+                    name, sorted.length, errors, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                    sorted[sorted.length - 1] / 1_000_000.0);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}